@@ -23,7 +23,8 @@ import java.nio.file.Path;
  * optionally be associated with a local file path.
  *
  * <p>Artifact instances are immutable. Any modification results in a new object, leaving the
- * original unchanged.
+ * original unchanged. Factory methods return canonical instances for artifacts without path, so
+ * artifacts with equal coordinates are the same object.
  *
  * <p>This interface defines methods for retrieving artifact metadata and creating modified copies
  * with updated properties.
@@ -96,10 +97,11 @@ public interface Artifact {
     Path getPath();
 
     /**
-     * Creates a new artifact instance with the specified version.
+     * Returns an artifact instance with the specified version.
      *
      * @param version the new version to set
-     * @return a new artifact instance with the updated version
+     * @return artifact instance with the updated version, which is this instance if the version
+     *     is unchanged
      */
     Artifact withVersion(String version);
 
@@ -131,10 +133,10 @@ public interface Artifact {
      * Factory method to create an artifact instance from a coordinate string.
      *
      * @param coords the artifact coordinates
-     * @return a new artifact instance
+     * @return canonical artifact instance, shared with other callers
      */
     static Artifact of(String coords) {
-        return new ArtifactImpl(coords);
+        return ArtifactInterner.intern(new ArtifactImpl(coords));
     }
 
     /**
@@ -142,10 +144,10 @@ public interface Artifact {
      *
      * @param groupId the group identifier
      * @param artifactId the artifact identifier
-     * @return a new artifact instance
+     * @return canonical artifact instance, shared with other callers
      */
     static Artifact of(String groupId, String artifactId) {
-        return new ArtifactImpl(groupId, artifactId);
+        return ArtifactImpl.canonical(groupId, artifactId, null, null, null);
     }
 
     /**
@@ -154,10 +156,10 @@ public interface Artifact {
      * @param groupId the group identifier
      * @param artifactId the artifact identifier
      * @param version the artifact version
-     * @return a new artifact instance
+     * @return canonical artifact instance, shared with other callers
      */
     static Artifact of(String groupId, String artifactId, String version) {
-        return new ArtifactImpl(groupId, artifactId, version);
+        return ArtifactImpl.canonical(groupId, artifactId, null, null, version);
     }
 
     /**
@@ -167,10 +169,10 @@ public interface Artifact {
      * @param artifactId the artifact identifier
      * @param extension the artifact extension
      * @param version the artifact version
-     * @return a new artifact instance
+     * @return canonical artifact instance, shared with other callers
      */
     static Artifact of(String groupId, String artifactId, String extension, String version) {
-        return new ArtifactImpl(groupId, artifactId, extension, version);
+        return ArtifactImpl.canonical(groupId, artifactId, extension, null, version);
     }
 
     /**
@@ -181,7 +183,7 @@ public interface Artifact {
      * @param extension the artifact extension
      * @param classifier the artifact classifier
      * @param version the artifact version
-     * @return a new artifact instance
+     * @return canonical artifact instance, shared with other callers
      */
     static Artifact of(
             String groupId,
@@ -189,7 +191,7 @@ public interface Artifact {
             String extension,
             String classifier,
             String version) {
-        return new ArtifactImpl(groupId, artifactId, extension, classifier, version);
+        return ArtifactImpl.canonical(groupId, artifactId, extension, classifier, version);
     }
 
     /**
@@ -201,7 +203,7 @@ public interface Artifact {
      * @param classifier the artifact classifier
      * @param version the artifact version
      * @param path the local file path
-     * @return a new artifact instance
+     * @return a new artifact instance, or canonical artifact instance if path is {@code null}
      */
     static Artifact of(
             String groupId,
@@ -210,6 +212,9 @@ public interface Artifact {
             String classifier,
             String version,
             Path path) {
+        if (path == null) {
+            return ArtifactImpl.canonical(groupId, artifactId, extension, classifier, version);
+        }
         return new ArtifactImpl(groupId, artifactId, extension, classifier, version, path);
     }
 }
@@ -27,6 +27,7 @@ final class ArtifactImpl implements Artifact {
     private final String classifier;
     private final String version;
     private final Path path;
+    private final int hash;
 
     public ArtifactImpl(String coords) {
         String s = coords;
@@ -51,6 +52,7 @@ final class ArtifactImpl implements Artifact {
         classifier = n < 4 ? "" : a[3];
         version = n < 2 || a[n].isEmpty() ? DEFAULT_VERSION : a[n];
         path = null;
+        hash = hash(groupId, artifactId, extension, classifier, version);
     }
 
     public ArtifactImpl(String groupId, String artifactId) {
@@ -81,19 +83,99 @@ final class ArtifactImpl implements Artifact {
             String classifier,
             String version,
             Path path) {
+        checkCoordinates(groupId, artifactId);
+
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.extension = normalizeExtension(extension);
+        this.classifier = normalizeClassifier(classifier);
+        this.version = normalizeVersion(version);
+        this.path = path;
+        this.hash =
+                hash(this.groupId, this.artifactId, this.extension, this.classifier, this.version);
+    }
+
+    /**
+     * Get canonical instance of artifact with given coordinates and no path. Looking up an existing
+     * instance doesn't allocate any objects.
+     *
+     * @see ArtifactInterner
+     */
+    static ArtifactImpl canonical(
+            String groupId,
+            String artifactId,
+            String extension,
+            String classifier,
+            String version) {
+        checkCoordinates(groupId, artifactId);
+        return ArtifactInterner.intern(
+                groupId,
+                artifactId,
+                normalizeExtension(extension),
+                normalizeClassifier(classifier),
+                normalizeVersion(version));
+    }
+
+    private static void checkCoordinates(String groupId, String artifactId) {
         if (groupId == null || groupId.isEmpty()) {
             throw new IllegalArgumentException("groupId must be specified");
         }
         if (artifactId == null || artifactId.isEmpty()) {
             throw new IllegalArgumentException("artifactId must be specified");
         }
+    }
 
-        this.groupId = groupId;
-        this.artifactId = artifactId;
-        this.extension = extension == null || extension.isEmpty() ? DEFAULT_EXTENSION : extension;
-        this.classifier = classifier == null ? "" : classifier;
-        this.version = version == null || version.isEmpty() ? DEFAULT_VERSION : version;
-        this.path = path;
+    private static String normalizeExtension(String extension) {
+        return extension == null || extension.isEmpty() ? DEFAULT_EXTENSION : extension;
+    }
+
+    private static String normalizeClassifier(String classifier) {
+        return classifier == null ? "" : classifier;
+    }
+
+    private static String normalizeVersion(String version) {
+        return version == null || version.isEmpty() ? DEFAULT_VERSION : version;
+    }
+
+    /**
+     * Compute the same value as {@code toString().hashCode()}, but without building the string.
+     * Keeping hash values unchanged preserves iteration order of hashed collections of artifacts.
+     */
+    static int hash(
+            String groupId,
+            String artifactId,
+            String extension,
+            String classifier,
+            String version) {
+        int h = hashChars(0, groupId);
+        h = hashChars(31 * h + ':', artifactId);
+        h = hashChars(31 * h + ':', extension);
+        if (!classifier.isEmpty()) {
+            h = hashChars(31 * h + ':', classifier);
+        }
+        return hashChars(31 * h + ':', version);
+    }
+
+    /** Check whether this artifact has given normalized coordinates and no path. */
+    boolean hasCoordinates(
+            String groupId,
+            String artifactId,
+            String extension,
+            String classifier,
+            String version) {
+        return path == null
+                && this.groupId.equals(groupId)
+                && this.artifactId.equals(artifactId)
+                && this.extension.equals(extension)
+                && this.classifier.equals(classifier)
+                && this.version.equals(version);
+    }
+
+    private static int hashChars(int h, String s) {
+        for (int i = 0, n = s.length(); i < n; i++) {
+            h = 31 * h + s.charAt(i);
+        }
+        return h;
     }
 
     @Override
@@ -128,7 +210,14 @@ final class ArtifactImpl implements Artifact {
 
     @Override
     public Artifact withVersion(String version) {
-        return new ArtifactImpl(groupId, artifactId, extension, classifier, version, path);
+        String newVersion = normalizeVersion(version);
+        if (newVersion.equals(this.version)) {
+            return this;
+        }
+        if (path == null) {
+            return ArtifactInterner.intern(groupId, artifactId, extension, classifier, newVersion);
+        }
+        return new ArtifactImpl(groupId, artifactId, extension, classifier, newVersion, path);
     }
 
     @Override
@@ -151,6 +240,12 @@ final class ArtifactImpl implements Artifact {
 
     @Override
     public boolean equals(Object rhs) {
+        if (this == rhs) {
+            return true;
+        }
+        if (rhs instanceof ArtifactImpl && ((ArtifactImpl) rhs).hash != hash) {
+            return false;
+        }
         if (!(rhs instanceof Artifact)) {
             return false;
         }
@@ -167,6 +262,6 @@ final class ArtifactImpl implements Artifact {
 
     @Override
     public int hashCode() {
-        return toString().hashCode();
+        return hash;
     }
 }
@@ -0,0 +1,168 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.artifact;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * Pool of canonical artifact instances, which lets artifacts with equal coordinates created in
+ * different places be the same object, so that subsequent {@code equals} calls are trivial and
+ * duplicate artifacts don't take up heap.
+ *
+ * <p>Artifacts are held through weak references, so the pool keeps only artifacts that are still
+ * in use and doesn't need to be bounded. Looking up an existing artifact by its coordinates doesn't
+ * allocate. The pool is split into independently locked segments to limit contention.
+ *
+ * @author Mikolaj Izdebski
+ */
+final class ArtifactInterner {
+    private static final int SEGMENT_BITS = 4;
+
+    private static final Segment[] SEGMENTS = new Segment[1 << SEGMENT_BITS];
+
+    static {
+        for (int i = 0; i < SEGMENTS.length; i++) {
+            SEGMENTS[i] = new Segment();
+        }
+    }
+
+    private ArtifactInterner() {}
+
+    private static Segment segmentFor(int hash) {
+        return SEGMENTS[(hash ^ (hash >>> 16)) & (SEGMENTS.length - 1)];
+    }
+
+    /**
+     * Get canonical artifact with given coordinates and no path, creating it if needed.
+     * Coordinates must be already normalized.
+     */
+    static ArtifactImpl intern(
+            String groupId,
+            String artifactId,
+            String extension,
+            String classifier,
+            String version) {
+        int hash = ArtifactImpl.hash(groupId, artifactId, extension, classifier, version);
+        return segmentFor(hash).intern(hash, groupId, artifactId, extension, classifier, version);
+    }
+
+    /** Get canonical artifact equal to given artifact, which must have no path. */
+    static ArtifactImpl intern(ArtifactImpl artifact) {
+        return segmentFor(artifact.hashCode()).intern(artifact);
+    }
+
+    private static final class Entry extends WeakReference<ArtifactImpl> {
+        final int hash;
+
+        Entry next;
+
+        Entry(ArtifactImpl artifact, ReferenceQueue<ArtifactImpl> queue, Entry next) {
+            super(artifact, queue);
+            this.hash = artifact.hashCode();
+            this.next = next;
+        }
+    }
+
+    /** Hash table with separate chaining, from which cleared entries are purged on each access. */
+    private static final class Segment {
+        private static final int INITIAL_CAPACITY = 64;
+
+        private final ReferenceQueue<ArtifactImpl> queue = new ReferenceQueue<>();
+
+        private Entry[] table = new Entry[INITIAL_CAPACITY];
+
+        private int size;
+
+        private int indexFor(int hash) {
+            return (hash >>> SEGMENT_BITS) & (table.length - 1);
+        }
+
+        synchronized ArtifactImpl intern(
+                int hash,
+                String groupId,
+                String artifactId,
+                String extension,
+                String classifier,
+                String version) {
+            expungeClearedEntries();
+            for (Entry e = table[indexFor(hash)]; e != null; e = e.next) {
+                ArtifactImpl artifact = e.get();
+                if (e.hash == hash
+                        && artifact != null
+                        && artifact.hasCoordinates(
+                                groupId, artifactId, extension, classifier, version)) {
+                    return artifact;
+                }
+            }
+            return add(new ArtifactImpl(groupId, artifactId, extension, classifier, version));
+        }
+
+        synchronized ArtifactImpl intern(ArtifactImpl artifact) {
+            expungeClearedEntries();
+            int hash = artifact.hashCode();
+            for (Entry e = table[indexFor(hash)]; e != null; e = e.next) {
+                ArtifactImpl canonical = e.get();
+                if (e.hash == hash && artifact.equals(canonical)) {
+                    return canonical;
+                }
+            }
+            return add(artifact);
+        }
+
+        private ArtifactImpl add(ArtifactImpl artifact) {
+            int index = indexFor(artifact.hashCode());
+            table[index] = new Entry(artifact, queue, table[index]);
+            if (++size > table.length / 4 * 3) {
+                resize();
+            }
+            return artifact;
+        }
+
+        private void resize() {
+            Entry[] oldTable = table;
+            table = new Entry[oldTable.length * 2];
+            for (Entry head : oldTable) {
+                for (Entry e = head; e != null; ) {
+                    Entry next = e.next;
+                    int index = indexFor(e.hash);
+                    e.next = table[index];
+                    table[index] = e;
+                    e = next;
+                }
+            }
+        }
+
+        private void expungeClearedEntries() {
+            for (Object cleared; (cleared = queue.poll()) != null; ) {
+                Entry entry = (Entry) cleared;
+                int index = indexFor(entry.hash);
+                Entry prev = null;
+                for (Entry e = table[index]; e != null; prev = e, e = e.next) {
+                    if (e == entry) {
+                        if (prev == null) {
+                            table[index] = e.next;
+                        } else {
+                            prev.next = e.next;
+                        }
+                        size--;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+}
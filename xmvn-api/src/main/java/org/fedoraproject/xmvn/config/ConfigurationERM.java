@@ -332,6 +332,50 @@ interface ConfigurationERM {
                             ResolverSettings::setIgnoreDuplicateMetadata,
                             Object::toString,
                             Boolean::valueOf),
+                    Attribute.ofOptional(
+                            "metadataIndex",
+                            ResolverSettings::isMetadataIndex,
+                            ResolverSettings::setMetadataIndex,
+                            Object::toString,
+                            Boolean::valueOf),
+                    Attribute.ofOptional(
+                            "compactArtifactIndex",
+                            ResolverSettings::isCompactArtifactIndex,
+                            ResolverSettings::setCompactArtifactIndex,
+                            Object::toString,
+                            Boolean::valueOf),
+                    Attribute.ofOptional(
+                            "lazyMetadata",
+                            ResolverSettings::isLazyMetadata,
+                            ResolverSettings::setLazyMetadata,
+                            Object::toString,
+                            Boolean::valueOf),
+                    Attribute.ofOptional(
+                            "metadataExecutor",
+                            ResolverSettings::getMetadataExecutor,
+                            ResolverSettings::setMetadataExecutor),
+                    Attribute.ofOptional(
+                            "metadataIndexDirectory",
+                            ResolverSettings::getMetadataIndexDirectory,
+                            ResolverSettings::setMetadataIndexDirectory),
+                    Attribute.ofOptional(
+                            "precomputeUncompressedSize",
+                            ResolverSettings::isPrecomputeUncompressedSize,
+                            ResolverSettings::setPrecomputeUncompressedSize,
+                            Object::toString,
+                            Boolean::valueOf),
+                    Attribute.ofOptional(
+                            "maxCacheSize",
+                            ResolverSettings::getMaxCacheSize,
+                            ResolverSettings::setMaxCacheSize,
+                            Object::toString,
+                            Integer::valueOf),
+                    Attribute.ofOptional(
+                            "precomputeRealPaths",
+                            ResolverSettings::isPrecomputeRealPaths,
+                            ResolverSettings::setPrecomputeRealPaths,
+                            Object::toString,
+                            Boolean::valueOf),
                     Relationship.ofSingular(
                             prefixesEntity,
                             ResolverSettings::getPrefixesOrNull,
@@ -42,6 +42,56 @@ public class ResolverSettings {
      */
     private Boolean ignoreDuplicateMetadata = false;
 
+    /**
+     * Whether XMvn should keep a persistent binary index of metadata in its cache directory to
+     * speed up metadata loading.
+     */
+    private Boolean metadataIndex = false;
+
+    /**
+     * Whether XMvn should keep artifact metadata in a compact, dictionary-encoded index, which uses
+     * less memory than the default hash-based index.
+     */
+    private Boolean compactArtifactIndex = false;
+
+    /**
+     * Whether XMvn should parse metadata files lazily, only when artifacts they provide are looked
+     * up.
+     */
+    private Boolean lazyMetadata = false;
+
+    /**
+     * Strategy XMvn uses to parse metadata files concurrently, one of pool (fixed thread pool),
+     * virtual (virtual thread per file), forkjoin (fork-join pool sized to CPU count) or single
+     * (parse in the calling thread).
+     */
+    private String metadataExecutor = "pool";
+
+    /**
+     * Directory where XMvn keeps persistent binary indexes of metadata shared by all processes on
+     * the host, instead of its cache directory. Setting it enables metadata index.
+     */
+    private String metadataIndexDirectory;
+
+    /**
+     * Whether uncompressed sizes of compressed metadata files should be read from their GZIP
+     * trailers, so that metadata files can be scheduled for parsing in order of their actual size.
+     */
+    private Boolean precomputeUncompressedSize = false;
+
+    /**
+     * Maximal size of XMvn cache directory in megabytes, above which least recently used cache
+     * entries are removed; zero or negative value (the default) disables removal of cache entries.
+     */
+    private Integer maxCacheSize = 0;
+
+    /**
+     * Whether real paths of all artifact files should be computed as soon as metadata is loaded, so
+     * that artifact resolution does not need to access the file system at all. Ignored if metadata
+     * is loaded lazily.
+     */
+    private Boolean precomputeRealPaths = false;
+
     /** Field prefixes. */
     private List<String> prefixes = new ArrayList<>();
 
@@ -156,6 +206,88 @@ public class ResolverSettings {
         return ignoreDuplicateMetadata;
     }
 
+    /**
+     * Get whether XMvn should keep a persistent binary index of metadata in its cache directory to
+     * speed up metadata loading.
+     *
+     * @return Boolean
+     */
+    public Boolean isMetadataIndex() {
+        return metadataIndex;
+    }
+
+    /**
+     * Get whether XMvn should keep artifact metadata in a compact, dictionary-encoded index,
+     * which uses less memory than the default hash-based index.
+     *
+     * @return Boolean
+     */
+    public Boolean isCompactArtifactIndex() {
+        return compactArtifactIndex;
+    }
+
+    /**
+     * Get whether XMvn should parse metadata files lazily, only when artifacts they provide are
+     * looked up.
+     *
+     * @return Boolean
+     */
+    public Boolean isLazyMetadata() {
+        return lazyMetadata;
+    }
+
+    /**
+     * Get strategy XMvn uses to parse metadata files concurrently, one of pool (fixed thread pool),
+     * virtual (virtual thread per file), forkjoin (fork-join pool sized to CPU count) or single
+     * (parse in the calling thread).
+     *
+     * @return String
+     */
+    public String getMetadataExecutor() {
+        return metadataExecutor;
+    }
+
+    /**
+     * Get directory where XMvn keeps persistent binary indexes of metadata shared by all processes
+     * on the host, instead of its cache directory. Setting it enables metadata index.
+     *
+     * @return String
+     */
+    public String getMetadataIndexDirectory() {
+        return metadataIndexDirectory;
+    }
+
+    /**
+     * Get whether uncompressed sizes of compressed metadata files should be read from their GZIP
+     * trailers, so that metadata files can be scheduled for parsing in order of their actual size.
+     *
+     * @return Boolean
+     */
+    public Boolean isPrecomputeUncompressedSize() {
+        return precomputeUncompressedSize;
+    }
+
+    /**
+     * Get maximal size of XMvn cache directory in megabytes, above which least recently used cache
+     * entries are removed; zero or negative value (the default) disables removal of cache entries.
+     *
+     * @return Integer
+     */
+    public Integer getMaxCacheSize() {
+        return maxCacheSize;
+    }
+
+    /**
+     * Get whether real paths of all artifact files should be computed as soon as metadata is
+     * loaded, so that artifact resolution does not need to access the file system at all. Ignored
+     * if metadata is loaded lazily.
+     *
+     * @return Boolean
+     */
+    public Boolean isPrecomputeRealPaths() {
+        return precomputeRealPaths;
+    }
+
     /**
      * Method removeBlacklist.
      *
@@ -221,6 +353,88 @@ public class ResolverSettings {
         this.ignoreDuplicateMetadata = ignoreDuplicateMetadata;
     }
 
+    /**
+     * Set whether XMvn should keep a persistent binary index of metadata in its cache directory to
+     * speed up metadata loading.
+     *
+     * @param metadataIndex a metadataIndex object.
+     */
+    public void setMetadataIndex(Boolean metadataIndex) {
+        this.metadataIndex = metadataIndex;
+    }
+
+    /**
+     * Set whether XMvn should keep artifact metadata in a compact, dictionary-encoded index,
+     * which uses less memory than the default hash-based index.
+     *
+     * @param compactArtifactIndex a compactArtifactIndex object.
+     */
+    public void setCompactArtifactIndex(Boolean compactArtifactIndex) {
+        this.compactArtifactIndex = compactArtifactIndex;
+    }
+
+    /**
+     * Set whether XMvn should parse metadata files lazily, only when artifacts they provide are
+     * looked up.
+     *
+     * @param lazyMetadata a lazyMetadata object.
+     */
+    public void setLazyMetadata(Boolean lazyMetadata) {
+        this.lazyMetadata = lazyMetadata;
+    }
+
+    /**
+     * Set strategy XMvn uses to parse metadata files concurrently, one of pool (fixed thread pool),
+     * virtual (virtual thread per file), forkjoin (fork-join pool sized to CPU count) or single
+     * (parse in the calling thread).
+     *
+     * @param metadataExecutor a metadataExecutor object.
+     */
+    public void setMetadataExecutor(String metadataExecutor) {
+        this.metadataExecutor = metadataExecutor;
+    }
+
+    /**
+     * Set directory where XMvn keeps persistent binary indexes of metadata shared by all processes
+     * on the host, instead of its cache directory. Setting it enables metadata index.
+     *
+     * @param metadataIndexDirectory a metadataIndexDirectory object.
+     */
+    public void setMetadataIndexDirectory(String metadataIndexDirectory) {
+        this.metadataIndexDirectory = metadataIndexDirectory;
+    }
+
+    /**
+     * Set whether uncompressed sizes of compressed metadata files should be read from their GZIP
+     * trailers, so that metadata files can be scheduled for parsing in order of their actual size.
+     *
+     * @param precomputeUncompressedSize a precomputeUncompressedSize object.
+     */
+    public void setPrecomputeUncompressedSize(Boolean precomputeUncompressedSize) {
+        this.precomputeUncompressedSize = precomputeUncompressedSize;
+    }
+
+    /**
+     * Set maximal size of XMvn cache directory in megabytes, above which least recently used cache
+     * entries are removed; zero or negative value (the default) disables removal of cache entries.
+     *
+     * @param maxCacheSize a maxCacheSize object.
+     */
+    public void setMaxCacheSize(Integer maxCacheSize) {
+        this.maxCacheSize = maxCacheSize;
+    }
+
+    /**
+     * Set whether real paths of all artifact files should be computed as soon as metadata is
+     * loaded, so that artifact resolution does not need to access the file system at all. Ignored
+     * if metadata is loaded lazily.
+     *
+     * @param precomputeRealPaths a precomputeRealPaths object.
+     */
+    public void setPrecomputeRealPaths(Boolean precomputeRealPaths) {
+        this.precomputeRealPaths = precomputeRealPaths;
+    }
+
     /**
      * Set list of local repositories where XMvn will look for artifacts.
      *
@@ -15,6 +15,7 @@
  */
 package org.fedoraproject.xmvn.metadata;
 
+import java.nio.file.Path;
 import java.util.List;
 
 /**
@@ -27,6 +28,21 @@ public class MetadataRequest {
 
     private boolean ignoreDuplicates = true;
 
+    private Path indexPath;
+
+    private boolean compactArtifactIndex;
+
+    private boolean lazy;
+
+    private Path coordinateIndexPath;
+
+    private String executorStrategy = "pool";
+
+    private boolean skipExclusions;
+
+
+    private boolean precomputeUncompressedSize;
+
     public MetadataRequest(List<String> metadataRepositories) {
         this.metadataRepositories = metadataRepositories;
     }
@@ -42,4 +58,148 @@ public class MetadataRequest {
     public void setIgnoreDuplicates(boolean ignoreDuplicates) {
         this.ignoreDuplicates = ignoreDuplicates;
     }
+
+    /**
+     * Get path to persistent binary index of metadata, which is used to avoid re-parsing metadata
+     * files that were not modified since the index was last written.
+     *
+     * @return path to metadata index file, or {@code null} if no index should be used
+     */
+    public Path getIndexPath() {
+        return indexPath;
+    }
+
+    /**
+     * Set path to persistent binary index of metadata.
+     *
+     * @param indexPath path to metadata index file, or {@code null} if no index should be used
+     */
+    public void setIndexPath(Path indexPath) {
+        this.indexPath = indexPath;
+    }
+
+    /**
+     * Check whether resolved metadata should be kept in a compact, dictionary-encoded artifact
+     * index rather than in a hash map keyed by artifacts. The compact index uses considerably less
+     * memory, at the cost of slightly slower lookups.
+     *
+     * @return {@code true} if compact artifact index should be used
+     */
+    public boolean isCompactArtifactIndex() {
+        return compactArtifactIndex;
+    }
+
+    /**
+     * Set whether resolved metadata should be kept in a compact artifact index.
+     *
+     * @param compactArtifactIndex {@code true} if compact artifact index should be used
+     */
+    public void setCompactArtifactIndex(boolean compactArtifactIndex) {
+        this.compactArtifactIndex = compactArtifactIndex;
+    }
+
+    /**
+     * Check whether metadata should be loaded lazily. In lazy mode only coordinates of artifacts
+     * provided by each metadata file are determined upfront and metadata files are fully parsed
+     * only when any artifact they provide is looked up for the first time. Metadata files are
+     * still all parsed if {@link MetadataResult#getPackageMetadataMap()} is called.
+     *
+     * @return {@code true} if metadata should be loaded lazily
+     */
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * Set whether metadata should be loaded lazily.
+     *
+     * @param lazy {@code true} if metadata should be loaded lazily
+     */
+    public void setLazy(boolean lazy) {
+        this.lazy = lazy;
+    }
+
+    /**
+     * Get path to persistent index of artifact coordinates provided by metadata files, which is
+     * used in lazy mode to avoid parsing metadata files that were not modified since the index was
+     * last written.
+     *
+     * @return path to coordinate index file, or {@code null} if no index should be used
+     */
+    public Path getCoordinateIndexPath() {
+        return coordinateIndexPath;
+    }
+
+    /**
+     * Set path to persistent index of artifact coordinates provided by metadata files.
+     *
+     * @param coordinateIndexPath path to coordinate index file, or {@code null} if no index should
+     *     be used
+     */
+    public void setCoordinateIndexPath(Path coordinateIndexPath) {
+        this.coordinateIndexPath = coordinateIndexPath;
+    }
+
+    /**
+     * Get name of strategy used to parse metadata files concurrently. Supported strategies are
+     * {@code pool} (fixed pool of platform threads), {@code virtual} (virtual thread per metadata
+     * file, where supported by the JVM), {@code forkjoin} (fork-join pool sized to CPU count)
+     * and {@code single} (all files are parsed sequentially in the calling thread).
+     *
+     * @return executor strategy name
+     */
+    public String getExecutorStrategy() {
+        return executorStrategy;
+    }
+
+    /**
+     * Set name of strategy used to parse metadata files concurrently.
+     *
+     * @param executorStrategy executor strategy name
+     */
+    public void setExecutorStrategy(String executorStrategy) {
+        this.executorStrategy = executorStrategy;
+    }
+
+    /**
+     * Check whether dependency exclusions should be skipped when reading metadata, which makes
+     * reading faster when metadata is used only to resolve artifact paths. When exclusions are
+     * skipped, persistent metadata index is not used.
+     *
+     * @return {@code true} if dependency exclusions should be skipped
+     */
+    public boolean isSkipExclusions() {
+        return skipExclusions;
+    }
+
+    /**
+     * Set whether dependency exclusions should be skipped when reading metadata.
+     *
+     * @param skipExclusions {@code true} if dependency exclusions should be skipped
+     */
+    public void setSkipExclusions(boolean skipExclusions) {
+        this.skipExclusions = skipExclusions;
+    }
+
+    /**
+     * Check whether uncompressed sizes of compressed metadata files should be read from their GZIP
+     * trailers. Metadata files are parsed in order of decreasing size, so that the largest files
+     * don't delay completion of the whole batch. Without this option compressed files are
+     * scheduled according to their compressed size, which avoids opening each of them upfront.
+     *
+     * @return {@code true} if uncompressed sizes should be precomputed
+     */
+    public boolean isPrecomputeUncompressedSize() {
+        return precomputeUncompressedSize;
+    }
+
+    /**
+     * Set whether uncompressed sizes of compressed metadata files should be read from their GZIP
+     * trailers.
+     *
+     * @param precomputeUncompressedSize {@code true} if uncompressed sizes should be precomputed
+     */
+    public void setPrecomputeUncompressedSize(boolean precomputeUncompressedSize) {
+        this.precomputeUncompressedSize = precomputeUncompressedSize;
+    }
 }
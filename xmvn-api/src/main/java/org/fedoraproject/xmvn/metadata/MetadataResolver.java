@@ -28,4 +28,20 @@ public interface MetadataResolver {
      * @return results of metadata resolution, never {@code null}
      */
     MetadataResult resolveMetadata(MetadataRequest request);
+
+    /**
+     * Refresh previously resolved metadata so that it reflects current contents of metadata
+     * repositories. Previous result is not modified, so it can still be used by other threads, but
+     * implementations may share its unchanged parts with the new result, re-reading only metadata
+     * files that were added or modified since the previous result was created.
+     *
+     * <p>Default implementation resolves metadata from scratch.
+     *
+     * @param request parameters of metadata resolution, same as used to obtain previous result
+     * @param result previous results of metadata resolution
+     * @return results of metadata resolution, never {@code null}
+     */
+    default MetadataResult refreshMetadata(MetadataRequest request, MetadataResult result) {
+        return resolveMetadata(request);
+    }
 }
@@ -34,6 +34,26 @@ public interface MetadataResult {
      */
     ArtifactMetadata getMetadataFor(Artifact artifact);
 
+    /**
+     * Lookup metadata for specified artifact, falling back to default version ({@link
+     * Artifact#DEFAULT_VERSION}) if this result doesn't contain metadata for the exact version of
+     * the artifact.
+     *
+     * <p>Default implementation performs two separate lookups. Implementations should override it
+     * with a single lookup if possible.
+     *
+     * @param artifact artifact to lookup metadata for
+     * @return metadata for specified artifact or its default version, or {@code null} if this
+     *     result doesn't contain metadata for either of them
+     */
+    default ArtifactMetadata getMetadataOrDefaultFor(Artifact artifact) {
+        ArtifactMetadata metadata = getMetadataFor(artifact);
+        if (metadata == null) {
+            metadata = getMetadataFor(artifact.withVersion(Artifact.DEFAULT_VERSION));
+        }
+        return metadata;
+    }
+
     /**
      * Return a read-only {@link Map} that contains every found metadata file {@link Path}s and a
      * corresponding {@link PackageMetadata}.
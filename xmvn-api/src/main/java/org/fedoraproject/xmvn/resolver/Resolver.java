@@ -15,6 +15,10 @@
  */
 package org.fedoraproject.xmvn.resolver;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Resolves artifacts from system repositories configured in {@code <resolverSettings>} in XMvn
  * configuration.
@@ -30,4 +34,37 @@ public interface Resolver {
      * @return results of artifact resolution, never {@code null}
      */
     ResolutionResult resolve(ResolutionRequest request);
+
+    /**
+     * Resolve multiple artifacts at once from system repositories configured in {@code
+     * <resolverSettings>} in XMvn configuration.
+     *
+     * <p>All artifacts are resolved against the same metadata, which is refreshed at most once if
+     * any artifacts need to be installed on demand. Resolving artifacts in a batch is therefore
+     * more efficient than resolving each of them separately.
+     *
+     * @param requests parameters of artifact resolution
+     * @return results of artifact resolution, in the same order as requests, never {@code null}
+     */
+    default List<ResolutionResult> resolveAll(Collection<ResolutionRequest> requests) {
+        List<ResolutionResult> results = new ArrayList<>(requests.size());
+        for (ResolutionRequest request : requests) {
+            results.add(resolve(request));
+        }
+        return results;
+    }
+
+    /**
+     * Prepare for resolution of given artifacts, for example by loading artifact metadata and
+     * caching information about artifacts that are available. Unlike {@link #resolveAll}, this
+     * method never tries to install missing artifacts. Calling this method is never required, but
+     * it can make subsequent resolution faster.
+     *
+     * <p>Default implementation does nothing.
+     *
+     * @param requests parameters of artifacts that are likely to be resolved later, can be empty
+     */
+    default void preload(Collection<ResolutionRequest> requests) {
+        // Nothing to do
+    }
 }
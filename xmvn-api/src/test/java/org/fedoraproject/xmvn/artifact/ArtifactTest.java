@@ -256,4 +256,40 @@ class ArtifactTest {
         Artifact artifact1 = Artifact.of("gid", "aid", "ext", "cla", "ver");
         assertThat(artifact1.hashCode()).isEqualTo(artifact0.hashCode());
     }
+
+    @Test
+    void hashCodeMatchesString() throws Exception {
+        Artifact artifact0 = Artifact.of("gid:aid:ext:cla:ver");
+        Artifact artifact1 = Artifact.of("gid:aid:ext:ver");
+        Artifact artifact2 = Artifact.of("gid:aid:ext:ver").withPath(Path.of("/tmp/foo"));
+        assertThat(artifact0.hashCode()).isEqualTo(artifact0.toString().hashCode());
+        assertThat(artifact1.hashCode()).isEqualTo(artifact1.toString().hashCode());
+        assertThat(artifact2.hashCode()).isEqualTo(artifact1.hashCode());
+    }
+
+    @Test
+    void withSameVersion() throws Exception {
+        Artifact artifact0 = Artifact.of("gid:aid:ext:cla:ver");
+        assertThat(artifact0.withVersion("ver")).isSameAs(artifact0);
+        assertThat(artifact0.withVersion("1.2.3")).isEqualTo(Artifact.of("gid:aid:ext:cla:1.2.3"));
+    }
+
+    @Test
+    void canonicalInstances() throws Exception {
+        Artifact artifact = Artifact.of("gid", "aid", "ext", "cla", "ver");
+        assertThat(Artifact.of("gid:aid:ext:cla:ver")).isSameAs(artifact);
+        assertThat(Artifact.of("gid", "aid", "ext", "cla", "ver", null)).isSameAs(artifact);
+        assertThat(Artifact.of("gid", "aid", "ext", "cla", "1.2.3").withVersion("ver"))
+                .isSameAs(artifact);
+        assertThat(Artifact.of("gid", "aid", "", null, "")).isSameAs(Artifact.of("gid", "aid"));
+
+        Path path = Path.of("/tmp/foo");
+        assertThat(artifact.withPath(path)).isNotSameAs(artifact.withPath(path));
+        assertThat(artifact.withPath(path).withVersion("1.2.3").getPath()).isEqualTo(path);
+
+        for (int i = 0; i < 10000; i++) {
+            assertThat(Artifact.of("gid", "aid" + i).withVersion("ver"))
+                    .isSameAs(Artifact.of("gid:aid" + i + ":ver"));
+        }
+    }
 }
@@ -0,0 +1,93 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.artifact;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures lookups of artifacts in a map of tens of thousands of artifacts, as done by metadata
+ * and dependency resolution.
+ *
+ * <p>Benchmark {@code canonicalLookup} gets the key from {@link Artifact#of}, which returns the
+ * canonical instance already present in the map. {@code newInstanceLookup} uses a newly allocated,
+ * equal artifact instead, as {@link Artifact#of} used to return. {@code stringHashLookup} also
+ * hashes the coordinate string, as {@link Artifact#hashCode()} used to do. Run with {@code -prof
+ * gc} to see allocation rates.
+ *
+ * @author Mikolaj Izdebski
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArtifactBenchmark {
+    private static final int ARTIFACT_COUNT = 50000;
+
+    private final String[] groupIds = new String[ARTIFACT_COUNT];
+
+    private final String[] artifactIds = new String[ARTIFACT_COUNT];
+
+    private final Map<Artifact, Object> index = new HashMap<>();
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < ARTIFACT_COUNT; i++) {
+            groupIds[i] = "org.example.group" + i % 500;
+            artifactIds[i] = "artifact" + i;
+            index.put(Artifact.of(groupIds[i], artifactIds[i], "1.0"), artifactIds[i]);
+        }
+    }
+
+    private int nextIndex() {
+        next = (next + 1) % ARTIFACT_COUNT;
+        return next;
+    }
+
+    @Benchmark
+    public Object canonicalLookup() {
+        int i = nextIndex();
+        return index.get(Artifact.of(groupIds[i], artifactIds[i], "1.0"));
+    }
+
+    @Benchmark
+    public Object newInstanceLookup() {
+        int i = nextIndex();
+        return index.get(new ArtifactImpl(groupIds[i], artifactIds[i], "1.0"));
+    }
+
+    @Benchmark
+    public Object stringHashLookup() {
+        int i = nextIndex();
+        Artifact artifact = new ArtifactImpl(groupIds[i], artifactIds[i], "1.0");
+        return artifact.toString().hashCode() != 0 ? index.get(artifact) : null;
+    }
+}
@@ -0,0 +1,107 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.metadata.impl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.fedoraproject.xmvn.metadata.ArtifactMetadata;
+import org.fedoraproject.xmvn.metadata.Dependency;
+import org.fedoraproject.xmvn.metadata.DependencyExclusion;
+import org.fedoraproject.xmvn.metadata.PackageMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares reading of a metadata fragment with {@link PackageMetadataParser}, the way {@link
+ * DefaultMetadataResolver} reads fragments, against the generic parser used by {@link
+ * PackageMetadata#readFromXML(Path)}.
+ *
+ * @author Mikolaj Izdebski
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PackageMetadataParserBenchmark {
+    /** Number of artifacts in the fragment. */
+    @Param({"100", "5000"})
+    public int artifactCount;
+
+    private Path fragment;
+
+    @Setup
+    public void setUp() throws Exception {
+        PackageMetadata metadata = new PackageMetadata();
+        for (int i = 0; i < artifactCount; i++) {
+            ArtifactMetadata artifact = new ArtifactMetadata();
+            artifact.setGroupId("org.example.group" + i % 50);
+            artifact.setArtifactId("artifact" + i);
+            artifact.setVersion("1." + i);
+            artifact.setPath("/usr/share/java/artifact" + i + ".jar");
+            artifact.addCompatVersion("1");
+            artifact.addProperty("requiresJava", "17");
+            for (int j = 0; j < 5; j++) {
+                Dependency dependency = new Dependency();
+                dependency.setGroupId("org.example.group" + (i + j) % 50);
+                dependency.setArtifactId("artifact" + (i + j + 1));
+                dependency.setRequestedVersion("1." + (i + j + 1));
+                DependencyExclusion exclusion = new DependencyExclusion();
+                exclusion.setGroupId("org.example.excluded");
+                exclusion.setArtifactId("excluded" + j);
+                dependency.addExclusion(exclusion);
+                artifact.addDependency(dependency);
+            }
+            metadata.addArtifact(artifact);
+        }
+
+        fragment = Files.createTempFile("xmvn-benchmark-", ".xml");
+        metadata.writeToXML(fragment);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(fragment);
+    }
+
+    @Benchmark
+    public PackageMetadata genericParser() throws Exception {
+        return PackageMetadata.readFromXML(fragment);
+    }
+
+    @Benchmark
+    public PackageMetadata streamingParser() throws Exception {
+        return DefaultMetadataResolver.readMetadata(fragment, false);
+    }
+
+    @Benchmark
+    public PackageMetadata streamingParserSkippingExclusions() throws Exception {
+        return DefaultMetadataResolver.readMetadata(fragment, true);
+    }
+}
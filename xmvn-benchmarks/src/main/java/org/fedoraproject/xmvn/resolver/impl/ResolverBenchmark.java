@@ -0,0 +1,148 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.resolver.impl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.fedoraproject.xmvn.artifact.Artifact;
+import org.fedoraproject.xmvn.config.Configuration;
+import org.fedoraproject.xmvn.config.Configurator;
+import org.fedoraproject.xmvn.config.ResolverSettings;
+import org.fedoraproject.xmvn.logging.Logger;
+import org.fedoraproject.xmvn.logging.impl.ConsoleLogger;
+import org.fedoraproject.xmvn.metadata.ArtifactMetadata;
+import org.fedoraproject.xmvn.metadata.PackageMetadata;
+import org.fedoraproject.xmvn.metadata.impl.DefaultMetadataResolver;
+import org.fedoraproject.xmvn.resolver.ResolutionRequest;
+import org.fedoraproject.xmvn.resolver.ResolutionResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures throughput of {@link DefaultResolver#resolve} for artifacts present in system metadata.
+ *
+ * <p>Benchmark {@code copySystemProperties} measures the per-artifact copying of system and
+ * artifact properties that {@code resolve()} used to do before properties were looked up in
+ * layers, so that the difference can be seen in a single run.
+ *
+ * @author Mikolaj Izdebski
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResolverBenchmark {
+    private static final int ARTIFACT_COUNT = 1000;
+
+    private Path workDir;
+
+    private DefaultResolver resolver;
+
+    private final List<ResolutionRequest> requests = new ArrayList<>();
+
+    private final ArtifactMetadata metadata = new ArtifactMetadata();
+
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        workDir = Files.createTempDirectory("xmvn-benchmark-");
+        Path repoDir = Files.createDirectories(workDir.resolve("repo"));
+
+        PackageMetadata packageMetadata = new PackageMetadata();
+        for (int i = 0; i < ARTIFACT_COUNT; i++) {
+            Path jar = Files.createFile(workDir.resolve("artifact" + i + ".jar"));
+            ArtifactMetadata artifact = new ArtifactMetadata();
+            artifact.setGroupId("org.example");
+            artifact.setArtifactId("artifact" + i);
+            artifact.setVersion("1.0");
+            artifact.setPath(jar.toString());
+            packageMetadata.addArtifact(artifact);
+            requests.add(new ResolutionRequest(Artifact.of("org.example", "artifact" + i)));
+        }
+        packageMetadata.writeToXML(repoDir.resolve("metadata.xml"));
+        metadata.addProperty("type", "jar");
+
+        ResolverSettings settings = new ResolverSettings();
+        settings.setMetadataRepositories(List.of(repoDir.toString()));
+        Configuration configuration = new Configuration();
+        configuration.setResolverSettings(settings);
+        Configurator configurator =
+                new Configurator() {
+                    @Override
+                    public Configuration getDefaultConfiguration() {
+                        return configuration;
+                    }
+
+                    @Override
+                    public Configuration getConfiguration() {
+                        return configuration;
+                    }
+                };
+
+        Logger logger = new ConsoleLogger();
+        resolver = new DefaultResolver(logger, configurator, new DefaultMetadataResolver(logger));
+        resolver.cacheManager = new CacheManager(workDir.resolve("cache"));
+
+        for (ResolutionRequest request : requests) {
+            if (resolver.resolve(request).getArtifactPath() == null) {
+                throw new IllegalStateException("Unable to resolve " + request.getArtifact());
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(workDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public ResolutionResult resolve() {
+        next = (next + 1) % ARTIFACT_COUNT;
+        return resolver.resolve(requests.get(next));
+    }
+
+    @Benchmark
+    public String copySystemProperties() {
+        Properties systemProperties = new Properties();
+        systemProperties.putAll(System.getProperties());
+        Properties properties = new Properties(systemProperties);
+        properties.putAll(metadata.getProperties());
+        return properties.getProperty("type");
+    }
+}
@@ -0,0 +1,143 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.connector.maven;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.apache.maven.AbstractMavenLifecycleParticipant;
+import org.apache.maven.artifact.handler.ArtifactHandler;
+import org.apache.maven.artifact.handler.manager.ArtifactHandlerManager;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.project.MavenProject;
+import org.fedoraproject.xmvn.artifact.Artifact;
+import org.fedoraproject.xmvn.logging.Logger;
+import org.fedoraproject.xmvn.resolver.ResolutionRequest;
+import org.fedoraproject.xmvn.resolver.Resolver;
+
+/**
+ * Preloads XMvn resolver in background, so that artifact metadata is already loaded when Maven
+ * starts resolving artifacts. Once all projects are read, artifacts declared as dependencies of
+ * reactor projects are preloaded too.
+ *
+ * <p>Preloading is disabled by default and can be enabled by setting system property {@code
+ * xmvn.resolver.preload} to {@code true}.
+ *
+ * @author Mikolaj Izdebski
+ */
+@Named
+@Singleton
+public class XMvnResolverPreloader extends AbstractMavenLifecycleParticipant {
+
+    private final Logger logger;
+
+    private final Resolver resolver;
+
+    private final ArtifactHandlerManager artifactHandlerManager;
+
+    private ExecutorService executor;
+
+    @Inject
+    public XMvnResolverPreloader(
+            Logger logger, Resolver resolver, ArtifactHandlerManager artifactHandlerManager) {
+        this.logger = logger;
+        this.resolver = resolver;
+        this.artifactHandlerManager = artifactHandlerManager;
+    }
+
+    private void preload(List<ResolutionRequest> requests) {
+        executor.execute(
+                () -> {
+                    try {
+                        resolver.preload(requests);
+                    } catch (RuntimeException e) {
+                        logger.debug("Failed to preload artifacts: {}", e);
+                    }
+                });
+    }
+
+    @Override
+    public synchronized void afterSessionStart(MavenSession session) {
+        if (!"true".equals(System.getProperty("xmvn.resolver.preload"))) {
+            return;
+        }
+
+        executor =
+                Executors.newSingleThreadExecutor(
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "xmvn-preload");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+
+        // Load metadata while Maven is reading projects
+        preload(List.of());
+    }
+
+    private static ResolutionRequest createRequest(
+            Dependency dependency, String extension, String classifier) {
+        return new ResolutionRequest(
+                Artifact.of(
+                        dependency.getGroupId(),
+                        dependency.getArtifactId(),
+                        extension,
+                        classifier,
+                        dependency.getVersion()));
+    }
+
+    @Override
+    public synchronized void afterProjectsRead(MavenSession session) {
+        if (executor == null) {
+            return;
+        }
+
+        Set<ResolutionRequest> requests = new LinkedHashSet<>();
+        for (MavenProject project : session.getProjects()) {
+            for (Dependency dependency : project.getDependencies()) {
+                // Maven reads POMs of all dependencies, besides their main artifacts
+                requests.add(createRequest(dependency, "pom", null));
+                // Dependency type determines extension and default classifier of main artifact
+                ArtifactHandler handler =
+                        artifactHandlerManager.getArtifactHandler(dependency.getType());
+                if (!"pom".equals(handler.getExtension())) {
+                    String classifier = dependency.getClassifier();
+                    if (classifier == null || classifier.isEmpty()) {
+                        classifier = handler.getClassifier();
+                    }
+                    requests.add(createRequest(dependency, handler.getExtension(), classifier));
+                }
+            }
+        }
+
+        logger.debug("Preloading {} artifacts declared by reactor projects", requests.size());
+        preload(new ArrayList<>(requests));
+    }
+
+    @Override
+    public synchronized void afterSessionEnd(MavenSession session) {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+}
@@ -69,6 +69,38 @@ class ConfigurationMerger {
             dominant.setIgnoreDuplicateMetadata(recessive.isIgnoreDuplicateMetadata());
         }
 
+        if (dominant.isMetadataIndex() == null) {
+            dominant.setMetadataIndex(recessive.isMetadataIndex());
+        }
+
+        if (dominant.isCompactArtifactIndex() == null) {
+            dominant.setCompactArtifactIndex(recessive.isCompactArtifactIndex());
+        }
+
+        if (dominant.isLazyMetadata() == null) {
+            dominant.setLazyMetadata(recessive.isLazyMetadata());
+        }
+
+        if (dominant.getMetadataExecutor() == null) {
+            dominant.setMetadataExecutor(recessive.getMetadataExecutor());
+        }
+
+        if (dominant.getMetadataIndexDirectory() == null) {
+            dominant.setMetadataIndexDirectory(recessive.getMetadataIndexDirectory());
+        }
+
+        if (dominant.isPrecomputeUncompressedSize() == null) {
+            dominant.setPrecomputeUncompressedSize(recessive.isPrecomputeUncompressedSize());
+        }
+
+        if (dominant.getMaxCacheSize() == null) {
+            dominant.setMaxCacheSize(recessive.getMaxCacheSize());
+        }
+
+        if (dominant.isPrecomputeRealPaths() == null) {
+            dominant.setPrecomputeRealPaths(recessive.isPrecomputeRealPaths());
+        }
+
         dominant.getPrefixes().addAll(recessive.getPrefixes());
 
         dominant.getBlacklist().addAll(recessive.getBlacklist());
@@ -0,0 +1,84 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.metadata.impl;
+
+import org.fedoraproject.xmvn.artifact.Artifact;
+import org.fedoraproject.xmvn.metadata.ArtifactMetadata;
+
+/**
+ * Mapping from artifact coordinates to artifact metadata, used by {@link DefaultMetadataResult}.
+ *
+ * <p>Implementations don't need to be thread-safe, but they must allow concurrent lookups as long
+ * as the index is not modified.
+ *
+ * @author Mikolaj Izdebski
+ */
+interface ArtifactIndex {
+    /**
+     * Look up metadata for given artifact. Artifacts with path never have any mapping.
+     *
+     * @param artifact artifact to look up
+     * @return artifact metadata, or {@code null} if there is no mapping for given artifact
+     */
+    ArtifactMetadata get(Artifact artifact);
+
+    /**
+     * Look up metadata for given artifact, falling back to its default version if there is no
+     * mapping for the exact version of the artifact.
+     *
+     * @param artifact artifact to look up
+     * @return artifact metadata, or {@code null} if there is no mapping for given artifact nor its
+     *     default version
+     */
+    ArtifactMetadata getOrDefaultVersion(Artifact artifact);
+
+    /**
+     * Add or replace mapping for given artifact.
+     *
+     * @param artifact artifact, without path
+     * @param metadata artifact metadata, not {@code null}
+     */
+    void put(Artifact artifact, ArtifactMetadata metadata);
+
+    /**
+     * Remove mapping for given artifact, if there is any.
+     *
+     * @param artifact artifact to remove
+     */
+    void remove(Artifact artifact);
+
+    /**
+     * Get number of mappings in this index.
+     *
+     * @return number of mappings
+     */
+    int size();
+
+    /**
+     * Estimate number of bytes of heap memory used by this index, not counting artifact metadata
+     * objects, which are shared with package metadata.
+     *
+     * @return approximate memory footprint in bytes
+     */
+    long getMemoryFootprint();
+
+    /**
+     * Create an independent copy of this index, which can be modified without affecting this one.
+     *
+     * @return copy of this index
+     */
+    ArtifactIndex copy();
+}
@@ -0,0 +1,101 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.metadata.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+
+/**
+ * Crash-safe replacement of files that are shared between processes.
+ *
+ * <p>Contents are written to a temporary file in the same directory as the target file, flushed to
+ * disk, and then the temporary file is atomically renamed to the target file. Readers therefore
+ * observe either the old or the new file, never a partially written one. If writing fails then the
+ * temporary file is removed and the target file is left untouched.
+ *
+ * @author Mikolaj Izdebski
+ */
+final class AtomicFile {
+    private AtomicFile() {
+        // Avoid generating default public constructor
+    }
+
+    /** Functional interface for writing file contents. */
+    @FunctionalInterface
+    interface ContentWriter {
+        void write(FileChannel channel) throws IOException;
+    }
+
+    /**
+     * Atomically create or replace given file. Parent directories are created as needed. The file
+     * is readable by everyone.
+     *
+     * @param path path to the file
+     * @param writer writes new contents of the file
+     * @throws IOException if the file could not be written
+     */
+    static void write(Path path, ContentWriter writer) throws IOException {
+        Path dir = path.getParent();
+        Files.createDirectories(dir);
+        Path tempPath = Files.createTempFile(dir, "." + path.getFileName(), ".tmp");
+        try {
+            try {
+                Files.setPosixFilePermissions(
+                        tempPath, PosixFilePermissions.fromString("rw-r--r--"));
+            } catch (UnsupportedOperationException e) {
+                // Not a POSIX file system
+            }
+
+            try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.WRITE)) {
+                writer.write(channel);
+                channel.force(true);
+            }
+
+            try {
+                Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(tempPath);
+            } catch (IOException e1) {
+                e.addSuppressed(e1);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Write all remaining bytes of given buffer to given channel.
+     *
+     * @param channel channel to write to
+     * @param buffer buffer to write
+     * @throws IOException if an I/O error occurs
+     */
+    static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.metadata.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.fedoraproject.xmvn.artifact.Artifact;
+import org.fedoraproject.xmvn.metadata.ArtifactMetadata;
+
+/**
+ * Memory-efficient artifact index.
+ *
+ * <p>Coordinate strings are dictionary-encoded, so that each artifact is represented by a tuple of
+ * five ints (groupId, artifactId, extension, classifier and version). Tuples are kept in a single
+ * int array forming an open-addressing hash table with linear probing, with metadata in a parallel
+ * array. No {@link Artifact} objects or map entries are retained and lookups don't allocate.
+ *
+ * @author Mikolaj Izdebski
+ */
+class CompactArtifactIndex implements ArtifactIndex {
+    private static final int FIELDS = 5;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Approximate size of dictionary entry (hash map node, boxed id and string), in bytes. */
+    private static final int DICTIONARY_ENTRY_SIZE = 32 + 16 + 40 + 4;
+
+    private final Map<String, Integer> dictionary = new HashMap<>();
+
+    private long dictionaryChars;
+
+    private int[] keys = new int[INITIAL_CAPACITY * FIELDS];
+
+    private ArtifactMetadata[] values = new ArtifactMetadata[INITIAL_CAPACITY];
+
+    private int size;
+
+    private int lookupId(String s) {
+        Integer id = dictionary.get(s);
+        return id != null ? id : -1;
+    }
+
+    private int internId(String s) {
+        Integer id = dictionary.get(s);
+        if (id == null) {
+            id = dictionary.size();
+            dictionary.put(s, id);
+            dictionaryChars += s.length();
+        }
+        return id;
+    }
+
+    private static int hash(int g, int a, int e, int c, int v) {
+        int h = g;
+        h = 31 * h + a;
+        h = 31 * h + e;
+        h = 31 * h + c;
+        h = 31 * h + v;
+        return h ^ (h >>> 16);
+    }
+
+    private int homeSlot(int slot) {
+        int i = slot * FIELDS;
+        return hash(keys[i], keys[i + 1], keys[i + 2], keys[i + 3], keys[i + 4])
+                & (values.length - 1);
+    }
+
+    private int findSlot(int g, int a, int e, int c, int v) {
+        int mask = values.length - 1;
+        for (int slot = hash(g, a, e, c, v) & mask; ; slot = (slot + 1) & mask) {
+            if (values[slot] == null) {
+                return -1 - slot;
+            }
+            int i = slot * FIELDS;
+            if (keys[i] == g
+                    && keys[i + 1] == a
+                    && keys[i + 2] == e
+                    && keys[i + 3] == c
+                    && keys[i + 4] == v) {
+                return slot;
+            }
+        }
+    }
+
+    private int findSlot(Artifact artifact) {
+        if (artifact.getPath() != null) {
+            return -1;
+        }
+        int g = lookupId(artifact.getGroupId());
+        int a = lookupId(artifact.getArtifactId());
+        int e = lookupId(artifact.getExtension());
+        int c = lookupId(artifact.getClassifier());
+        int v = lookupId(artifact.getVersion());
+        if (g < 0 || a < 0 || e < 0 || c < 0 || v < 0) {
+            return -1;
+        }
+        return findSlot(g, a, e, c, v);
+    }
+
+    @Override
+    public ArtifactMetadata get(Artifact artifact) {
+        int slot = findSlot(artifact);
+        return slot >= 0 ? values[slot] : null;
+    }
+
+    @Override
+    public ArtifactMetadata getOrDefaultVersion(Artifact artifact) {
+        if (artifact.getPath() != null) {
+            return null;
+        }
+        // Coordinates are looked up in the dictionary only once for both versions
+        int g = lookupId(artifact.getGroupId());
+        int a = lookupId(artifact.getArtifactId());
+        int e = lookupId(artifact.getExtension());
+        int c = lookupId(artifact.getClassifier());
+        if (g < 0 || a < 0 || e < 0 || c < 0) {
+            return null;
+        }
+        int v = lookupId(artifact.getVersion());
+        int slot = v >= 0 ? findSlot(g, a, e, c, v) : -1;
+        if (slot < 0) {
+            int d = lookupId(Artifact.DEFAULT_VERSION);
+            slot = d >= 0 ? findSlot(g, a, e, c, d) : -1;
+        }
+        return slot >= 0 ? values[slot] : null;
+    }
+
+    @Override
+    public void put(Artifact artifact, ArtifactMetadata metadata) {
+        int g = internId(artifact.getGroupId());
+        int a = internId(artifact.getArtifactId());
+        int e = internId(artifact.getExtension());
+        int c = internId(artifact.getClassifier());
+        int v = internId(artifact.getVersion());
+
+        int slot = findSlot(g, a, e, c, v);
+        if (slot >= 0) {
+            values[slot] = metadata;
+            return;
+        }
+
+        if (4 * (size + 1) > 3 * values.length) {
+            grow();
+            slot = findSlot(g, a, e, c, v);
+        }
+
+        slot = -1 - slot;
+        int i = slot * FIELDS;
+        keys[i] = g;
+        keys[i + 1] = a;
+        keys[i + 2] = e;
+        keys[i + 3] = c;
+        keys[i + 4] = v;
+        values[slot] = metadata;
+        size++;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        ArtifactMetadata[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new ArtifactMetadata[oldValues.length * 2];
+
+        for (int oldSlot = 0; oldSlot < oldValues.length; oldSlot++) {
+            if (oldValues[oldSlot] != null) {
+                int i = oldSlot * FIELDS;
+                int slot =
+                        findSlot(
+                                oldKeys[i],
+                                oldKeys[i + 1],
+                                oldKeys[i + 2],
+                                oldKeys[i + 3],
+                                oldKeys[i + 4]);
+                slot = -1 - slot;
+                System.arraycopy(oldKeys, i, keys, slot * FIELDS, FIELDS);
+                values[slot] = oldValues[oldSlot];
+            }
+        }
+    }
+
+    @Override
+    public void remove(Artifact artifact) {
+        int slot = findSlot(artifact);
+        if (slot < 0) {
+            return;
+        }
+
+        // Backward-shift deletion, which keeps probe sequences intact without tombstones
+        int mask = values.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+            int home = homeSlot(next);
+            boolean reachable =
+                    hole <= next ? hole < home && home <= next : hole < home || home <= next;
+            if (!reachable) {
+                System.arraycopy(keys, next * FIELDS, keys, hole * FIELDS, FIELDS);
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        values[hole] = null;
+        size--;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long getMemoryFootprint() {
+        // Array headers plus 4 bytes per int and per compressed reference
+        return 2 * 16L
+                + 4L * keys.length
+                + 4L * values.length
+                + (long) dictionary.size() * DICTIONARY_ENTRY_SIZE
+                + dictionaryChars
+                + 4L * dictionary.size() * 4 / 3;
+    }
+
+    @Override
+    public ArtifactIndex copy() {
+        CompactArtifactIndex copy = new CompactArtifactIndex();
+        copy.dictionary.putAll(dictionary);
+        copy.dictionaryChars = dictionaryChars;
+        copy.keys = keys.clone();
+        copy.values = values.clone();
+        copy.size = size;
+        return copy;
+    }
+}
@@ -0,0 +1,153 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.metadata.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.fedoraproject.xmvn.logging.Logger;
+import org.fedoraproject.xmvn.metadata.ArtifactAlias;
+import org.fedoraproject.xmvn.metadata.ArtifactMetadata;
+import org.fedoraproject.xmvn.metadata.PackageMetadata;
+
+/**
+ * Persistent map from metadata fragments to coordinates of artifacts they provide.
+ *
+ * <p>For every fragment the index holds its path, size, modification time and a list of {@code
+ * groupId:artifactId} pairs of all artifacts and artifact aliases defined in the fragment. This
+ * allows to find out which fragments need to be parsed in order to resolve given artifact,
+ * without parsing any of them.
+ *
+ * @author Mikolaj Izdebski
+ */
+class CoordinateIndex {
+    /** File magic, ASCII {@code XMvnGAX1}. */
+    private static final long MAGIC = 0x584D766E47415831L;
+
+    record Entry(FragmentStamp stamp, List<String> coordinates) {}
+
+    private CoordinateIndex() {
+        // Avoid generating default public constructor
+    }
+
+    /**
+     * Get coordinate key of given artifact.
+     *
+     * @param groupId artifact groupId
+     * @param artifactId artifact artifactId
+     * @return coordinate key
+     */
+    static String key(String groupId, String artifactId) {
+        return groupId + ":" + artifactId;
+    }
+
+    /**
+     * Collect coordinate keys of all artifacts and artifact aliases in given package metadata.
+     *
+     * @param metadata package metadata
+     * @return list of distinct coordinate keys
+     */
+    static List<String> coordinatesOf(PackageMetadata metadata) {
+        Set<String> coordinates = new LinkedHashSet<>();
+        for (ArtifactMetadata artifact : metadata.getArtifacts()) {
+            coordinates.add(key(artifact.getGroupId(), artifact.getArtifactId()));
+            for (ArtifactAlias alias : artifact.getAliases()) {
+                coordinates.add(key(alias.getGroupId(), alias.getArtifactId()));
+            }
+        }
+        return new ArrayList<>(coordinates);
+    }
+
+    /**
+     * Load coordinate index from given file. If the file does not exist or is not a valid index
+     * then an empty map is returned.
+     *
+     * @param logger logger
+     * @param indexPath path to index file
+     * @return map from fragment paths to index entries, never {@code null}
+     */
+    static Map<Path, Entry> load(Logger logger, Path indexPath) {
+        Map<Path, Entry> entries = new LinkedHashMap<>();
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(indexPath));
+            if (buffer.getLong() != MAGIC) {
+                throw new IOException("Bad index file magic");
+            }
+            int n = buffer.getInt();
+            for (int i = 0; i < n; i++) {
+                Path path = Path.of(PackageMetadataCodec.readString(buffer));
+                FragmentStamp stamp = new FragmentStamp(buffer.getLong(), buffer.getLong());
+                int m = buffer.getInt();
+                List<String> coordinates = new ArrayList<>(m);
+                for (int j = 0; j < m; j++) {
+                    coordinates.add(PackageMetadataCodec.readString(buffer));
+                }
+                entries.put(path, new Entry(stamp, coordinates));
+            }
+            logger.debug("Loaded coordinate index {} with {} entries", indexPath, n);
+        } catch (NoSuchFileException e) {
+            logger.debug("Coordinate index {} does not exist yet", indexPath);
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Ignoring unusable coordinate index {}: {}", indexPath, e);
+            entries.clear();
+        }
+
+        return entries;
+    }
+
+    /**
+     * Write coordinate index to given file, atomically replacing any existing index.
+     *
+     * @param logger logger
+     * @param indexPath path to index file
+     * @param entries map from fragment paths to index entries
+     */
+    static void save(Logger logger, Path indexPath, Map<Path, Entry> entries) {
+        try (ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bos)) {
+            out.writeLong(MAGIC);
+            out.writeInt(entries.size());
+            for (Map.Entry<Path, Entry> entry : entries.entrySet()) {
+                PackageMetadataCodec.writeString(out, entry.getKey().toString());
+                out.writeLong(entry.getValue().stamp().size());
+                out.writeLong(entry.getValue().stamp().mtime());
+                out.writeInt(entry.getValue().coordinates().size());
+                for (String coordinate : entry.getValue().coordinates()) {
+                    PackageMetadataCodec.writeString(out, coordinate);
+                }
+            }
+            out.flush();
+
+            AtomicFile.write(
+                    indexPath,
+                    channel -> AtomicFile.writeFully(channel, ByteBuffer.wrap(bos.toByteArray())));
+            logger.debug("Saved coordinate index {} with {} entries", indexPath, entries.size());
+        } catch (IOException e) {
+            logger.debug("Unable to save coordinate index {}: {}", indexPath, e);
+        }
+    }
+}
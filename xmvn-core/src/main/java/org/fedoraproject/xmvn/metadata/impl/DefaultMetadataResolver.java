@@ -22,23 +22,35 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.concurrent.BlockingQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 import java.util.zip.GZIPInputStream;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
+import javax.xml.stream.XMLStreamException;
 import org.fedoraproject.xmvn.locator.ServiceLocator;
 import org.fedoraproject.xmvn.logging.Logger;
 import org.fedoraproject.xmvn.metadata.ArtifactMetadata;
@@ -59,45 +71,225 @@ import org.fedoraproject.xmvn.metadata.PackageMetadata;
 @Named
 @Singleton
 public class DefaultMetadataResolver implements MetadataResolver {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int INFLATER_BUFFER_SIZE = 256 * 1024;
+
     private final Logger logger;
 
-    private final ThreadPoolExecutor executor;
+    private final Map<ExecutorStrategy, Executor> executors = new ConcurrentHashMap<>();
+
+    private final MetadataMetrics metrics = new MetadataMetrics();
+
+    private final Path metricsFile;
 
     @Inject
     public DefaultMetadataResolver(Logger logger) {
         this.logger = logger;
-        BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>();
-        int nThread = 2 * Math.min(Math.max(Runtime.getRuntime().availableProcessors(), 1), 8);
-        executor =
-                new ThreadPoolExecutor(
-                        nThread,
-                        nThread,
-                        1,
-                        TimeUnit.MINUTES,
-                        queue,
-                        runnable -> {
-                            Thread thread = new Thread(runnable);
-                            thread.setName(
-                                    DefaultMetadataResolver.class.getCanonicalName() + ".worker");
-                            thread.setDaemon(true);
-                            return thread;
-                        });
+
+        if (System.getProperty("xmvn.metrics.jmx") != null) {
+            metrics.register(logger);
+        }
+        String metricsFileName = System.getProperty("xmvn.metrics.file");
+        metricsFile = metricsFileName != null ? Path.of(metricsFileName) : null;
     }
 
     public DefaultMetadataResolver(ServiceLocator locator) {
         this(locator.getService(Logger.class));
     }
 
+    /** Options controlling how metadata fragments are read. */
+    private record ReaderOptions(
+            ExecutorStrategy executorStrategy,
+            boolean skipExclusions,
+            boolean precomputeUncompressedSize) {
+        static final ReaderOptions DEFAULT = new ReaderOptions(ExecutorStrategy.POOL, false, false);
+    }
+
+    private ReaderOptions getReaderOptions(MetadataRequest request) {
+        ExecutorStrategy strategy = ExecutorStrategy.of(request.getExecutorStrategy());
+        if (strategy == null) {
+            logger.warn(
+                    "Unknown metadata executor strategy {}, using {}",
+                    request.getExecutorStrategy(),
+                    ExecutorStrategy.POOL);
+            strategy = ExecutorStrategy.POOL;
+        }
+        return new ReaderOptions(
+                strategy, request.isSkipExclusions(), request.isPrecomputeUncompressedSize());
+    }
+
+    /**
+     * Get metrics describing cost of metadata loading by this resolver.
+     *
+     * @return metadata metrics
+     */
+    MetadataMetrics getMetrics() {
+        return metrics;
+    }
+
+    private MetadataResult recordResult(MetadataResult result, boolean refresh) {
+        metrics.recordResult(result, refresh);
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Metadata metrics: {}", metrics.toJson());
+        }
+        if (metricsFile != null) {
+            metrics.dump(logger, metricsFile);
+        }
+
+        return result;
+    }
+
     @Override
     public MetadataResult resolveMetadata(MetadataRequest request) {
+        return recordResult(doResolveMetadata(request), false);
+    }
+
+    private MetadataResult doResolveMetadata(MetadataRequest request) {
+        if (request.isLazy()) {
+            return resolveMetadataLazily(request);
+        }
+
+        Map<Path, FragmentStamp> stamps = new ConcurrentHashMap<>();
         return new DefaultMetadataResult(
                 logger,
-                readMetadata(request.getMetadataRepositories()),
-                request.isIgnoreDuplicates());
+                readMetadata(
+                        request.getMetadataRepositories(),
+                        request.getIndexPath(),
+                        stamps,
+                        getReaderOptions(request)),
+                stamps,
+                request.isIgnoreDuplicates(),
+                createArtifactIndex(request));
     }
 
-    Map<Path, PackageMetadata> readMetadata(List<String> metadataLocations) {
-        Map<Path, Future<PackageMetadata>> futures = new LinkedHashMap<>();
+    private static ArtifactIndex createArtifactIndex(MetadataRequest request) {
+        return request.isCompactArtifactIndex()
+                ? new CompactArtifactIndex()
+                : new HashArtifactIndex();
+    }
+
+    private MetadataResult resolveMetadataLazily(MetadataRequest request) {
+        Path indexPath = request.getCoordinateIndexPath();
+        Map<Path, CoordinateIndex.Entry> cachedEntries =
+                indexPath != null ? CoordinateIndex.load(logger, indexPath) : Map.of();
+        List<Path> fragments = listFragments(request.getMetadataRepositories());
+        Map<Path, FragmentStamp> stamps = new ConcurrentHashMap<>();
+        Set<Path> changed = new LinkedHashSet<>();
+
+        for (Path path : fragments) {
+            try {
+                FragmentStamp stamp = FragmentStamp.of(path);
+                CoordinateIndex.Entry entry = cachedEntries.get(path);
+                if (entry != null && entry.stamp().equals(stamp)) {
+                    stamps.put(path, stamp);
+                    continue;
+                }
+            } catch (IOException e) {
+                // Fragment will be skipped when it fails to be read
+            }
+            changed.add(path);
+        }
+
+        // Fragments not covered by the index need to be parsed to learn their coordinates anyway,
+        // so they are kept in loaded state
+        ReaderOptions options = getReaderOptions(request);
+        Map<Path, PackageMetadata> loadedMetadata = readMetadata(changed, null, stamps, options);
+        Map<Path, CoordinateIndex.Entry> entries = new LinkedHashMap<>();
+        for (Path path : fragments) {
+            FragmentStamp stamp = stamps.get(path);
+            if (stamp == null) {
+                continue;
+            }
+            PackageMetadata metadata = loadedMetadata.get(path);
+            if (metadata != null) {
+                entries.put(
+                        path,
+                        new CoordinateIndex.Entry(stamp, CoordinateIndex.coordinatesOf(metadata)));
+            } else if (changed.contains(path)) {
+                entries.put(path, new CoordinateIndex.Entry(stamp, List.of()));
+            } else {
+                entries.put(path, cachedEntries.get(path));
+            }
+        }
+
+        if (indexPath != null
+                && (!changed.isEmpty() || !entries.keySet().equals(cachedEntries.keySet()))) {
+            CoordinateIndex.save(logger, indexPath, entries);
+        }
+
+        logger.debug(
+                "Lazy metadata: {} of {} fragments were parsed upfront",
+                loadedMetadata.size(),
+                entries.size());
+
+        Map<Path, List<String>> coordinates = new LinkedHashMap<>();
+        for (Map.Entry<Path, CoordinateIndex.Entry> entry : entries.entrySet()) {
+            coordinates.put(entry.getKey(), entry.getValue().coordinates());
+        }
+
+        return new LazyMetadataResult(
+                logger,
+                coordinates,
+                loadedMetadata,
+                stamps,
+                paths -> readMetadata(paths, null, stamps, options),
+                request.isIgnoreDuplicates(),
+                createArtifactIndex(request));
+    }
+
+    @Override
+    public MetadataResult refreshMetadata(MetadataRequest request, MetadataResult result) {
+        // Lazy results are re-created, which with coordinate index parses only modified fragments
+        if (!(result instanceof DefaultMetadataResult previous)) {
+            return resolveMetadata(request);
+        }
+
+        Map<Path, FragmentStamp> previousStamps = previous.getFragmentStamps();
+        Map<Path, PackageMetadata> previousMetadata = previous.getPackageMetadataMap();
+        List<Path> fragments = listFragments(request.getMetadataRepositories());
+        Map<Path, FragmentStamp> stamps = new ConcurrentHashMap<>();
+        Set<Path> changed = new LinkedHashSet<>();
+
+        for (Path path : fragments) {
+            try {
+                FragmentStamp stamp = FragmentStamp.of(path);
+                if (stamp.equals(previousStamps.get(path))) {
+                    stamps.put(path, stamp);
+                    continue;
+                }
+            } catch (IOException e) {
+                // Fragment will be skipped when it fails to be read again
+            }
+            changed.add(path);
+        }
+
+        if (changed.isEmpty() && previousStamps.keySet().equals(stamps.keySet())) {
+            logger.debug("Metadata is up to date, no fragments were changed");
+            return recordResult(previous, true);
+        }
+
+        Map<Path, PackageMetadata> changedMetadata =
+                readMetadata(changed, null, stamps, getReaderOptions(request));
+        Map<Path, PackageMetadata> packageMetadataMap = new LinkedHashMap<>();
+        for (Path path : fragments) {
+            PackageMetadata metadata =
+                    changed.contains(path) ? changedMetadata.get(path) : previousMetadata.get(path);
+            if (metadata != null) {
+                packageMetadataMap.put(path, metadata);
+            }
+        }
+
+        logger.debug(
+                "Refreshing metadata: {} of {} fragments were re-read",
+                changed.size(),
+                fragments.size());
+        return recordResult(previous.update(packageMetadataMap, stamps), true);
+    }
+
+    private static List<Path> listFragments(List<String> metadataLocations) {
+        Set<Path> fragments = new LinkedHashSet<>();
 
         for (String pathString : metadataLocations) {
             Path path = Path.of(pathString);
@@ -107,28 +299,98 @@ public class DefaultMetadataResolver implements MetadataResolver {
                 if (flist != null) {
                     Arrays.sort(flist);
                     for (String fragFilename : flist) {
-                        Path xmlPath = path.resolve(fragFilename);
-                        futures.put(xmlPath, executor.submit(() -> readMetadata(xmlPath)));
+                        fragments.add(path.resolve(fragFilename));
                     }
                 }
             } else {
-                futures.put(path, executor.submit(() -> readMetadata(path)));
+                fragments.add(path);
             }
         }
 
+        return new ArrayList<>(fragments);
+    }
+
+    Map<Path, PackageMetadata> readMetadata(List<String> metadataLocations) {
+        return readMetadata(
+                metadataLocations, null, new ConcurrentHashMap<>(), ReaderOptions.DEFAULT);
+    }
+
+    Map<Path, PackageMetadata> readMetadata(List<String> metadataLocations, Path indexPath) {
+        return readMetadata(
+                metadataLocations, indexPath, new ConcurrentHashMap<>(), ReaderOptions.DEFAULT);
+    }
+
+    private Map<Path, PackageMetadata> readMetadata(
+            List<String> metadataLocations,
+            Path indexPath,
+            Map<Path, FragmentStamp> stamps,
+            ReaderOptions options) {
+        // Index holds complete metadata, so it can't be populated when exclusions are skipped
+        MetadataIndex index =
+                indexPath != null && !options.skipExclusions()
+                        ? MetadataIndex.open(logger, indexPath)
+                        : null;
+        Map<Path, PackageMetadata> result =
+                readMetadata(listFragments(metadataLocations), index, stamps, options);
+
+        if (index != null) {
+            index.save(result.keySet());
+        }
+
+        return result;
+    }
+
+    private Map<Path, PackageMetadata> readMetadata(
+            Collection<Path> fragments,
+            MetadataIndex index,
+            Map<Path, FragmentStamp> stamps,
+            ReaderOptions options) {
+        long startTime = System.nanoTime();
+        ExecutorStrategy strategy = options.executorStrategy();
+        Executor executor = executors.computeIfAbsent(strategy, s -> s.createExecutor(logger));
+        Map<Path, FutureTask<PackageMetadata>> futures = new LinkedHashMap<>();
+        Map<Path, Long> parseTimes = new ConcurrentHashMap<>();
+
+        for (Path path : fragments) {
+            futures.put(
+                    path,
+                    new FutureTask<>(
+                            () -> {
+                                long fragmentStartTime = System.nanoTime();
+                                try {
+                                    return readMetadata(
+                                            path, index, stamps, options.skipExclusions());
+                                } finally {
+                                    parseTimes.put(path, System.nanoTime() - fragmentStartTime);
+                                }
+                            }));
+        }
+
+        // Results are still collected in fragment order, but largest fragments are submitted first
+        // so that a single large fragment submitted late doesn't become the tail of the whole load
+        for (Path path : getSchedulingOrder(futures.keySet(), stamps, strategy, options)) {
+            executor.execute(futures.get(path));
+        }
+
         try {
             Map<Path, PackageMetadata> result = new LinkedHashMap<>();
 
-            for (Entry<Path, Future<PackageMetadata>> entry : futures.entrySet()) {
+            for (Entry<Path, FutureTask<PackageMetadata>> entry : futures.entrySet()) {
                 Path path = entry.getKey();
                 Future<PackageMetadata> future = entry.getValue();
 
                 try {
                     PackageMetadata metadata = future.get();
                     result.put(path, metadata);
+                    FragmentStamp stamp = stamps.get(path);
+                    metrics.recordFragment(
+                            path, stamp != null ? stamp.size() : 0, parseTimes.get(path));
 
                     if (logger.isDebugEnabled()) {
-                        logger.debug("Adding metadata from file {}", path);
+                        logger.debug(
+                                "Adding metadata from file {}, parsed in {} ms",
+                                path,
+                                TimeUnit.NANOSECONDS.toMillis(parseTimes.get(path)));
 
                         for (ArtifactMetadata artifact : metadata.getArtifacts())
                             logger.debug("Added metadata for {}", artifact);
@@ -137,9 +399,24 @@ public class DefaultMetadataResolver implements MetadataResolver {
                     // Ignore. Failure to read PackageMetadata of a single package should not break
                     // the whole system
                     logger.debug("Skipping metadata file {}: {}", path, e);
+                    metrics.recordFailure();
                 }
             }
 
+            logger.debug(
+                    "Read {} metadata fragments in {} ms using {} executor",
+                    fragments.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime),
+                    strategy);
+            parseTimes.entrySet().stream()
+                    .max(Entry.comparingByValue())
+                    .ifPresent(
+                            slowest ->
+                                    logger.debug(
+                                            "Slowest metadata fragment was {}, parsed in {} ms",
+                                            slowest.getKey(),
+                                            TimeUnit.NANOSECONDS.toMillis(slowest.getValue())));
+
             return result;
         } catch (InterruptedException e) {
             logger.debug("Metadata reader thread was interrupted");
@@ -147,15 +424,106 @@ public class DefaultMetadataResolver implements MetadataResolver {
         }
     }
 
-    private static PackageMetadata readMetadata(Path path) throws Exception {
-        try (InputStream fis = Files.newInputStream(path)) {
-            try (BufferedInputStream bis = new BufferedInputStream(fis, 128)) {
-                try (InputStream is = isCompressed(bis) ? new GZIPInputStream(bis) : bis) {
-                    try (Reader r = new InputStreamReader(is)) {
-                        return PackageMetadata.readFromXML(r);
-                    }
+    private static List<Path> getSchedulingOrder(
+            Collection<Path> fragments,
+            Map<Path, FragmentStamp> stamps,
+            ExecutorStrategy strategy,
+            ReaderOptions options) {
+        if (strategy == ExecutorStrategy.SINGLE || fragments.size() < 2) {
+            return new ArrayList<>(fragments);
+        }
+
+        Map<Path, Long> sizes = new HashMap<>();
+        for (Path path : fragments) {
+            sizes.put(
+                    path,
+                    getFragmentSize(
+                            path, stamps.get(path), options.precomputeUncompressedSize()));
+        }
+
+        List<Path> order = new ArrayList<>(fragments);
+        order.sort(Comparator.comparing(sizes::get, Comparator.reverseOrder()));
+        return order;
+    }
+
+    /**
+     * Determine size of metadata fragment for scheduling purposes. Uncompressed size of GZIP
+     * compressed fragments is optionally read from GZIP trailer, which holds size of uncompressed
+     * data modulo 2<sup>32</sup>. Fragment file is opened only for reading GZIP trailer.
+     *
+     * @param path path to metadata fragment
+     * @param stamp stamp of metadata fragment, or {@code null} if it is not known yet
+     * @param uncompressed whether uncompressed size of compressed fragments should be determined
+     * @return fragment size, or {@code 0} if it can't be determined
+     */
+    static long getFragmentSize(Path path, FragmentStamp stamp, boolean uncompressed) {
+        try {
+            long size = stamp != null ? stamp.size() : FragmentStamp.of(path).size();
+            if (!uncompressed || size < 18) {
+                return size;
+            }
+
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+                readFully(channel, buffer.limit(2), 0);
+                if ((buffer.getShort(0) & 0xFFFF) != GZIPInputStream.GZIP_MAGIC) {
+                    return size;
                 }
+                readFully(channel, buffer.clear(), size - 4);
+                return Integer.toUnsignedLong(buffer.getInt(0));
             }
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+
+    private static PackageMetadata readMetadata(
+            Path path, MetadataIndex index, Map<Path, FragmentStamp> stamps, boolean skipExclusions)
+            throws Exception {
+        FragmentStamp stamp = FragmentStamp.of(path);
+        stamps.put(path, stamp);
+
+        if (index != null) {
+            return index.read(path, stamp, DefaultMetadataResolver::readMetadata);
+        }
+
+        return readMetadata(path, skipExclusions);
+    }
+
+    private static PackageMetadata readMetadata(Path path) throws Exception {
+        return readMetadata(path, false);
+    }
+
+    static PackageMetadata readMetadata(Path path, boolean skipExclusions) throws Exception {
+        try (InputStream is = openFragment(path)) {
+            return PackageMetadataParser.parse(is, skipExclusions);
+        } catch (XMLStreamException e) {
+            // Let the generic parser either handle constructs that streaming parser doesn't
+            // support, or report the error
+            try (InputStream is = openFragment(path);
+                    Reader r = new InputStreamReader(is, StandardCharsets.UTF_8)) {
+                return PackageMetadata.readFromXML(r);
+            }
+        }
+    }
+
+    private static InputStream openFragment(Path path) throws IOException {
+        InputStream fis = Files.newInputStream(path);
+        try {
+            BufferedInputStream bis = new BufferedInputStream(fis, BUFFER_SIZE);
+            return isCompressed(bis) ? new GZIPInputStream(bis, INFLATER_BUFFER_SIZE) : bis;
+        } catch (IOException | RuntimeException e) {
+            fis.close();
+            throw e;
         }
     }
 
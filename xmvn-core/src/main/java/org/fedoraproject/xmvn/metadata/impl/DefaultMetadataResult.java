@@ -17,7 +17,7 @@ package org.fedoraproject.xmvn.metadata.impl;
 
 import java.nio.file.Path;
 import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -30,30 +30,243 @@ import org.fedoraproject.xmvn.metadata.MetadataResult;
 import org.fedoraproject.xmvn.metadata.PackageMetadata;
 
 /**
+ * Metadata result holding all package metadata in memory.
+ *
+ * <p>Once constructed, results are never modified, so they can be safely shared between threads.
+ * Refreshing a result creates a new result, which reuses unchanged parts of the old one.
+ *
  * @author Mikolaj Izdebski
  */
 class DefaultMetadataResult implements MetadataResult {
     private final Logger logger;
 
+    private final boolean ignoreDuplicates;
+
     private final Map<Path, PackageMetadata> packageMetadataMap;
 
-    private final Map<Artifact, ArtifactMetadata> artifactMap = new LinkedHashMap<>();
+    private final Map<Path, FragmentStamp> fragmentStamps;
+
+    private final ArtifactIndex artifactIndex;
+
+    private final Set<Artifact> artifactsWithDuplicates = new HashSet<>();
 
     public DefaultMetadataResult(
             Logger logger,
             Map<Path, PackageMetadata> packageMetadataMap,
             boolean ignoreDuplicates) {
+        this(logger, packageMetadataMap, Map.of(), ignoreDuplicates);
+    }
+
+    public DefaultMetadataResult(
+            Logger logger,
+            Map<Path, PackageMetadata> packageMetadataMap,
+            Map<Path, FragmentStamp> fragmentStamps,
+            boolean ignoreDuplicates) {
+        this(logger, packageMetadataMap, fragmentStamps, ignoreDuplicates, new HashArtifactIndex());
+    }
+
+    public DefaultMetadataResult(
+            Logger logger,
+            Map<Path, PackageMetadata> packageMetadataMap,
+            Map<Path, FragmentStamp> fragmentStamps,
+            boolean ignoreDuplicates,
+            ArtifactIndex artifactIndex) {
         this.logger = logger;
+        this.ignoreDuplicates = ignoreDuplicates;
         this.packageMetadataMap = packageMetadataMap;
+        this.fragmentStamps = fragmentStamps;
+        this.artifactIndex = artifactIndex;
 
         for (PackageMetadata metadata : packageMetadataMap.values()) {
             for (ArtifactMetadata installedArtifact : metadata.getArtifacts()) {
-                processArtifactMetadata(installedArtifact, ignoreDuplicates);
+                processArtifactMetadata(installedArtifact, null);
+            }
+        }
+
+        logIndexSummary(0);
+    }
+
+    /**
+     * Log summary of artifact index after indexing. Duplicates are logged at debug level one by
+     * one, and summarized in a single warning.
+     *
+     * @param previousDuplicates number of artifacts with duplicate metadata that were not indexed
+     *     again
+     */
+    private void logIndexSummary(int previousDuplicates) {
+        int duplicates = getDuplicateArtifactCount();
+        if (duplicates > previousDuplicates) {
+            logger.warn(
+                    ignoreDuplicates
+                            ? "Ignoring metadata for {} artifacts as they have duplicate metadata"
+                            : "Duplicate metadata for {} artifacts",
+                    duplicates);
+        }
+        logger.debug(
+                "Artifact index ({}) holds {} mappings, using approximately {} kB of memory",
+                artifactIndex.getClass().getSimpleName(),
+                artifactIndex.size(),
+                artifactIndex.getMemoryFootprint() / 1024);
+    }
+
+    /**
+     * Get stamps of all metadata fragments this result was created from, including fragments that
+     * could not be read.
+     *
+     * @return fragment stamps
+     */
+    Map<Path, FragmentStamp> getFragmentStamps() {
+        return fragmentStamps;
+    }
+
+    ArtifactIndex getArtifactIndex() {
+        return artifactIndex;
+    }
+
+    /**
+     * Get number of artifacts that have duplicate metadata, either ignored or not.
+     *
+     * @return number of artifacts with duplicate metadata
+     */
+    int getDuplicateArtifactCount() {
+        return artifactsWithDuplicates.size();
+    }
+
+    /**
+     * Get number of artifact aliases declared by all package metadata.
+     *
+     * @return number of aliases
+     */
+    int getAliasCount() {
+        int count = 0;
+        for (PackageMetadata metadata : packageMetadataMap.values()) {
+            for (ArtifactMetadata artifact : metadata.getArtifacts()) {
+                count += artifact.getAliases().size();
             }
         }
+        return count;
     }
 
-    private void processArtifactMetadata(ArtifactMetadata metadata, boolean ignoreDuplicates) {
+    private DefaultMetadataResult(
+            DefaultMetadataResult previous,
+            Map<Path, PackageMetadata> packageMetadataMap,
+            Map<Path, FragmentStamp> fragmentStamps,
+            ArtifactIndex artifactIndex) {
+        this.logger = previous.logger;
+        this.ignoreDuplicates = previous.ignoreDuplicates;
+        this.packageMetadataMap = packageMetadataMap;
+        this.fragmentStamps = fragmentStamps;
+        this.artifactIndex = artifactIndex;
+        this.artifactsWithDuplicates.addAll(previous.artifactsWithDuplicates);
+    }
+
+    /**
+     * Create a new result that reflects new set of package metadata. This result is not modified.
+     *
+     * <p>Package metadata that is present both in this result and in the new map (as the same
+     * object) is treated as unchanged. Only artifact mappings contributed by added, removed or
+     * replaced package metadata are recomputed, with duplicates handled exactly as if the result
+     * was created from scratch.
+     *
+     * @param packageMetadataMap new package metadata map
+     * @param fragmentStamps stamps of all metadata fragments
+     * @return updated metadata result
+     */
+    DefaultMetadataResult update(
+            Map<Path, PackageMetadata> packageMetadataMap,
+            Map<Path, FragmentStamp> fragmentStamps) {
+        Set<Artifact> affectedArtifacts = new LinkedHashSet<>();
+
+        for (Map.Entry<Path, PackageMetadata> entry : this.packageMetadataMap.entrySet()) {
+            if (packageMetadataMap.get(entry.getKey()) != entry.getValue()) {
+                for (ArtifactMetadata metadata : entry.getValue().getArtifacts()) {
+                    affectedArtifacts.addAll(getArtifactSet(metadata));
+                }
+            }
+        }
+        for (Map.Entry<Path, PackageMetadata> entry : packageMetadataMap.entrySet()) {
+            if (this.packageMetadataMap.get(entry.getKey()) != entry.getValue()) {
+                for (ArtifactMetadata metadata : entry.getValue().getArtifacts()) {
+                    affectedArtifacts.addAll(getArtifactSet(metadata));
+                }
+            }
+        }
+
+        if (affectedArtifacts.isEmpty()) {
+            // Artifact index is never modified after construction, so it can be shared
+            return new DefaultMetadataResult(
+                    this, packageMetadataMap, fragmentStamps, artifactIndex);
+        }
+
+        DefaultMetadataResult result =
+                new DefaultMetadataResult(
+                        this, packageMetadataMap, fragmentStamps, artifactIndex.copy());
+        result.reindex(affectedArtifacts);
+        return result;
+    }
+
+    /**
+     * Add package metadata of newly read fragments to this result, modifying it in place. This
+     * result must have been created with a modifiable package metadata map, which keeps fragments
+     * in their original order. Callers are responsible for serializing modifications with all
+     * other uses of this result.
+     *
+     * <p>Only artifact mappings contributed by added package metadata are recomputed, from given
+     * related fragments. Related fragments must include all fragments in this result that provide
+     * any of these artifacts, so that duplicates are handled exactly as if the result was created
+     * from scratch.
+     *
+     * @param addedMetadata package metadata of newly read fragments
+     * @param relatedFragments paths of related fragments, in fragment order
+     */
+    void add(Map<Path, PackageMetadata> addedMetadata, List<Path> relatedFragments) {
+        packageMetadataMap.putAll(addedMetadata);
+
+        Set<Artifact> affectedArtifacts = new LinkedHashSet<>();
+        for (PackageMetadata metadata : addedMetadata.values()) {
+            for (ArtifactMetadata artifactMetadata : metadata.getArtifacts()) {
+                affectedArtifacts.addAll(getArtifactSet(artifactMetadata));
+            }
+        }
+        if (affectedArtifacts.isEmpty()) {
+            return;
+        }
+
+        for (Artifact artifact : affectedArtifacts) {
+            artifactIndex.remove(artifact);
+        }
+        artifactsWithDuplicates.removeAll(affectedArtifacts);
+        int previousDuplicates = getDuplicateArtifactCount();
+
+        for (Path path : relatedFragments) {
+            PackageMetadata metadata = packageMetadataMap.get(path);
+            if (metadata != null) {
+                for (ArtifactMetadata installedArtifact : metadata.getArtifacts()) {
+                    processArtifactMetadata(installedArtifact, affectedArtifacts);
+                }
+            }
+        }
+
+        logIndexSummary(previousDuplicates);
+    }
+
+    private void reindex(Set<Artifact> affectedArtifacts) {
+        for (Artifact artifact : affectedArtifacts) {
+            artifactIndex.remove(artifact);
+        }
+        artifactsWithDuplicates.removeAll(affectedArtifacts);
+        int previousDuplicates = getDuplicateArtifactCount();
+
+        for (PackageMetadata metadata : packageMetadataMap.values()) {
+            for (ArtifactMetadata installedArtifact : metadata.getArtifacts()) {
+                processArtifactMetadata(installedArtifact, affectedArtifacts);
+            }
+        }
+
+        logIndexSummary(previousDuplicates);
+    }
+
+    private static Set<Artifact> getArtifactSet(ArtifactMetadata metadata) {
         Artifact baseArtifact = metadata.toArtifact();
 
         List<String> versions = metadata.getCompatVersions();
@@ -81,6 +294,15 @@ class DefaultMetadataResult implements MetadataResult {
             }
         }
 
+        return artifactSet;
+    }
+
+    private void processArtifactMetadata(ArtifactMetadata metadata, Set<Artifact> filter) {
+        Set<Artifact> artifactSet = getArtifactSet(metadata);
+        if (filter != null) {
+            artifactSet.retainAll(filter);
+        }
+
         Set<Artifact> duplicateArtifacts = new LinkedHashSet<>();
 
         for (Artifact artifact : artifactSet) {
@@ -90,33 +312,39 @@ class DefaultMetadataResult implements MetadataResult {
                 continue;
             }
 
-            ArtifactMetadata otherMetadata = artifactMap.get(artifact);
+            ArtifactMetadata otherMetadata = artifactIndex.get(artifact);
 
             if (otherMetadata == null) {
-                artifactMap.put(artifact, metadata);
+                artifactIndex.put(artifact, metadata);
                 continue;
             }
 
             duplicateArtifacts.add(artifact);
+            artifactsWithDuplicates.add(artifact);
 
             if (ignoreDuplicates) {
-                artifactMap.remove(artifact);
-                logger.warn(
+                artifactIndex.remove(artifact);
+                logger.debug(
                         "Ignoring metadata for artifact {} as it has duplicate metadata", artifact);
                 continue;
             }
 
-            logger.warn("Duplicate metadata for artifact {}", artifact);
+            logger.debug("Duplicate metadata for artifact {}", artifact);
 
             if (otherMetadata.getNamespace().isEmpty() || !metadata.getNamespace().isEmpty()) {
-                artifactMap.put(artifact, metadata);
+                artifactIndex.put(artifact, metadata);
             }
         }
     }
 
     @Override
     public ArtifactMetadata getMetadataFor(Artifact artifact) {
-        return artifactMap.get(artifact);
+        return artifactIndex.get(artifact);
+    }
+
+    @Override
+    public ArtifactMetadata getMetadataOrDefaultFor(Artifact artifact) {
+        return artifactIndex.getOrDefaultVersion(artifact);
     }
 
     @Override
@@ -0,0 +1,120 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.metadata.impl;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.fedoraproject.xmvn.logging.Logger;
+
+/**
+ * Strategy of executing metadata fragment parsing tasks.
+ *
+ * @author Mikolaj Izdebski
+ */
+enum ExecutorStrategy {
+    /** Fixed pool of platform threads, twice the number of available CPUs, but at most 16. */
+    POOL("pool"),
+
+    /**
+     * New virtual thread for every fragment. Falls back to {@link #FORK_JOIN} on JVMs that don't
+     * support virtual threads.
+     */
+    VIRTUAL("virtual"),
+
+    /** Fork-join pool with parallelism equal to the number of available CPUs. */
+    FORK_JOIN("forkjoin"),
+
+    /** All fragments are parsed sequentially, in the calling thread. */
+    SINGLE("single");
+
+    private final String name;
+
+    ExecutorStrategy(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Find executor strategy by its configuration name.
+     *
+     * @param name strategy name, as used in configuration
+     * @return executor strategy, or {@code null} if there is no strategy with given name
+     */
+    static ExecutorStrategy of(String name) {
+        for (ExecutorStrategy strategy : values()) {
+            if (strategy.name.equals(name)) {
+                return strategy;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * Create executor implementing this strategy. Threads of created executors are all daemon
+     * threads that terminate when idle, so executors don't need to be shut down.
+     *
+     * @param logger logger
+     * @return new executor
+     */
+    Executor createExecutor(Logger logger) {
+        switch (this) {
+            case POOL:
+                int nThread = 2 * Math.min(Runtime.getRuntime().availableProcessors(), 8);
+                ThreadPoolExecutor executor =
+                        new ThreadPoolExecutor(
+                                nThread,
+                                nThread,
+                                1,
+                                TimeUnit.MINUTES,
+                                new LinkedBlockingQueue<>(),
+                                runnable -> {
+                                    Thread thread = new Thread(runnable);
+                                    thread.setName(
+                                            DefaultMetadataResolver.class.getCanonicalName()
+                                                    + ".worker");
+                                    thread.setDaemon(true);
+                                    return thread;
+                                });
+                executor.allowCoreThreadTimeOut(true);
+                return executor;
+            case VIRTUAL:
+                try {
+                    Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                    return (Executor) method.invoke(null);
+                } catch (ReflectiveOperationException e) {
+                    logger.debug("Virtual threads are not supported, using fork-join pool");
+                    return FORK_JOIN.createExecutor(logger);
+                }
+            case FORK_JOIN:
+                return new ForkJoinPool(
+                        Runtime.getRuntime().availableProcessors(),
+                        ForkJoinPool.defaultForkJoinWorkerThreadFactory,
+                        null,
+                        false);
+            default:
+                return Runnable::run;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.metadata.impl;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.fedoraproject.xmvn.artifact.Artifact;
+import org.fedoraproject.xmvn.metadata.ArtifactMetadata;
+
+/**
+ * Artifact index backed by a hash map keyed by versionless artifact coordinates.
+ *
+ * <p>Each map value holds metadata for all versions of artifact with given coordinates, that is
+ * for its compat versions and for its default version. This allows an artifact to be looked up
+ * together with its default version fallback with a single hash lookup.
+ *
+ * @author Mikolaj Izdebski
+ */
+class HashArtifactIndex implements ArtifactIndex {
+    /** Approximate size of hash map node plus coordinates and versions objects, in bytes. */
+    private static final int ENTRY_SIZE = 32 + 32 + 24;
+
+    /** Approximate size of a single compat version mapping, in bytes. */
+    private static final int VERSION_SIZE = 8;
+
+    private record Coordinates(
+            String groupId, String artifactId, String extension, String classifier) {
+        static Coordinates of(Artifact artifact) {
+            return new Coordinates(
+                    artifact.getGroupId(),
+                    artifact.getArtifactId(),
+                    artifact.getExtension(),
+                    artifact.getClassifier());
+        }
+    }
+
+    /**
+     * Metadata for all versions of an artifact. Instances are immutable, so that they can be shared
+     * between copies of the index.
+     */
+    private static final class Versions {
+        static final Versions EMPTY = new Versions(null, new String[0], new ArtifactMetadata[0]);
+
+        private final ArtifactMetadata defaultMetadata;
+
+        private final String[] compatVersions;
+
+        private final ArtifactMetadata[] compatMetadata;
+
+        private Versions(
+                ArtifactMetadata defaultMetadata,
+                String[] compatVersions,
+                ArtifactMetadata[] compatMetadata) {
+            this.defaultMetadata = defaultMetadata;
+            this.compatVersions = compatVersions;
+            this.compatMetadata = compatMetadata;
+        }
+
+        private int indexOf(String version) {
+            for (int i = 0; i < compatVersions.length; i++) {
+                if (compatVersions[i].equals(version)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        ArtifactMetadata get(String version) {
+            if (Artifact.DEFAULT_VERSION.equals(version)) {
+                return defaultMetadata;
+            }
+            int i = indexOf(version);
+            return i >= 0 ? compatMetadata[i] : null;
+        }
+
+        ArtifactMetadata getOrDefault(String version) {
+            ArtifactMetadata metadata = get(version);
+            return metadata != null ? metadata : defaultMetadata;
+        }
+
+        Versions with(String version, ArtifactMetadata metadata) {
+            if (Artifact.DEFAULT_VERSION.equals(version)) {
+                return new Versions(metadata, compatVersions, compatMetadata);
+            }
+            int i = indexOf(version);
+            if (i >= 0) {
+                ArtifactMetadata[] newMetadata = compatMetadata.clone();
+                newMetadata[i] = metadata;
+                return new Versions(defaultMetadata, compatVersions, newMetadata);
+            }
+            String[] newVersions = Arrays.copyOf(compatVersions, compatVersions.length + 1);
+            ArtifactMetadata[] newMetadata =
+                    Arrays.copyOf(compatMetadata, compatMetadata.length + 1);
+            newVersions[compatVersions.length] = version;
+            newMetadata[compatMetadata.length] = metadata;
+            return new Versions(defaultMetadata, newVersions, newMetadata);
+        }
+
+        Versions without(String version) {
+            if (Artifact.DEFAULT_VERSION.equals(version)) {
+                return new Versions(null, compatVersions, compatMetadata);
+            }
+            int i = indexOf(version);
+            int n = compatVersions.length - 1;
+            String[] newVersions = Arrays.copyOf(compatVersions, n);
+            ArtifactMetadata[] newMetadata = Arrays.copyOf(compatMetadata, n);
+            if (i < n) {
+                newVersions[i] = compatVersions[n];
+                newMetadata[i] = compatMetadata[n];
+            }
+            return new Versions(defaultMetadata, newVersions, newMetadata);
+        }
+
+        boolean isEmpty() {
+            return defaultMetadata == null && compatVersions.length == 0;
+        }
+    }
+
+    private final Map<Coordinates, Versions> map;
+
+    /** Number of mappings, counting each version separately. */
+    private int size;
+
+    HashArtifactIndex() {
+        map = new HashMap<>();
+    }
+
+    private HashArtifactIndex(HashArtifactIndex other) {
+        // Versions objects are immutable, so a shallow copy of the map is enough
+        map = new HashMap<>(other.map);
+        size = other.size;
+    }
+
+    private Versions getVersions(Artifact artifact) {
+        return artifact.getPath() == null ? map.get(Coordinates.of(artifact)) : null;
+    }
+
+    @Override
+    public ArtifactMetadata get(Artifact artifact) {
+        Versions versions = getVersions(artifact);
+        return versions != null ? versions.get(artifact.getVersion()) : null;
+    }
+
+    @Override
+    public ArtifactMetadata getOrDefaultVersion(Artifact artifact) {
+        Versions versions = getVersions(artifact);
+        return versions != null ? versions.getOrDefault(artifact.getVersion()) : null;
+    }
+
+    @Override
+    public void put(Artifact artifact, ArtifactMetadata metadata) {
+        Coordinates key = Coordinates.of(artifact);
+        Versions versions = map.getOrDefault(key, Versions.EMPTY);
+        if (versions.get(artifact.getVersion()) == null) {
+            size++;
+        }
+        map.put(key, versions.with(artifact.getVersion(), metadata));
+    }
+
+    @Override
+    public void remove(Artifact artifact) {
+        if (artifact.getPath() != null) {
+            return;
+        }
+        Coordinates key = Coordinates.of(artifact);
+        Versions versions = map.get(key);
+        if (versions == null || versions.get(artifact.getVersion()) == null) {
+            return;
+        }
+        size--;
+        versions = versions.without(artifact.getVersion());
+        if (versions.isEmpty()) {
+            map.remove(key);
+        } else {
+            map.put(key, versions);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long getMemoryFootprint() {
+        // Table is at most 75% full and holds 4-byte references
+        return (long) map.size() * ENTRY_SIZE
+                + map.size() * 4L * 4 / 3
+                + (long) size * VERSION_SIZE;
+    }
+
+    @Override
+    public ArtifactIndex copy() {
+        return new HashArtifactIndex(this);
+    }
+}
@@ -0,0 +1,187 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.metadata.impl;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import org.fedoraproject.xmvn.artifact.Artifact;
+import org.fedoraproject.xmvn.logging.Logger;
+import org.fedoraproject.xmvn.metadata.ArtifactMetadata;
+import org.fedoraproject.xmvn.metadata.MetadataResult;
+import org.fedoraproject.xmvn.metadata.PackageMetadata;
+
+/**
+ * Metadata result that parses metadata fragments on demand.
+ *
+ * <p>Only coordinates provided by each fragment are known upfront. The first time an artifact is
+ * looked up, all fragments that provide artifacts or aliases with the same groupId and artifactId
+ * are parsed and added to a {@link DefaultMetadataResult} holding all fragments parsed so far.
+ * Mappings of artifacts provided by newly parsed fragments are recomputed from fragments that
+ * provide the same coordinates, in their original order, so duplicates are resolved exactly as if
+ * all metadata was read eagerly. Cost of each lookup is therefore proportional to the number of
+ * fragments it parses, not to the number of fragments parsed so far.
+ *
+ * <p>Lookups are serialized, as they may need to parse more fragments and modify the underlying
+ * result.
+ *
+ * @author Mikolaj Izdebski
+ */
+class LazyMetadataResult implements MetadataResult {
+    private final Logger logger;
+
+    private final List<Path> fragments;
+
+    private final Map<Path, Integer> fragmentPositions = new HashMap<>();
+
+    private final Map<String, List<Path>> fragmentsByCoordinates = new HashMap<>();
+
+    private final Function<Collection<Path>, Map<Path, PackageMetadata>> reader;
+
+    private final Set<Path> loadedFragments;
+
+    private final DefaultMetadataResult delegate;
+
+    /**
+     * @param logger logger
+     * @param coordinates coordinates provided by each fragment, in fragment order
+     * @param loadedMetadata metadata of fragments that were already parsed
+     * @param fragmentStamps fragment stamps
+     * @param reader reads metadata fragments, skipping fragments that can't be read
+     * @param ignoreDuplicates whether artifacts with duplicate metadata should be ignored
+     * @param artifactIndex artifact index to be used
+     */
+    public LazyMetadataResult(
+            Logger logger,
+            Map<Path, List<String>> coordinates,
+            Map<Path, PackageMetadata> loadedMetadata,
+            Map<Path, FragmentStamp> fragmentStamps,
+            Function<Collection<Path>, Map<Path, PackageMetadata>> reader,
+            boolean ignoreDuplicates,
+            ArtifactIndex artifactIndex) {
+        this.logger = logger;
+        this.fragments = new ArrayList<>(coordinates.keySet());
+        this.reader = reader;
+        this.loadedFragments = new HashSet<>(loadedMetadata.keySet());
+
+        for (Map.Entry<Path, List<String>> entry : coordinates.entrySet()) {
+            fragmentPositions.put(entry.getKey(), fragmentPositions.size());
+            for (String coordinate : entry.getValue()) {
+                fragmentsByCoordinates
+                        .computeIfAbsent(coordinate, x -> new ArrayList<>())
+                        .add(entry.getKey());
+            }
+        }
+
+        // Package metadata map of the delegate is modified as fragments are parsed, but it always
+        // keeps fragments in their original order
+        Map<Path, PackageMetadata> packageMetadataMap =
+                new TreeMap<>(Comparator.comparing(fragmentPositions::get));
+        for (Map.Entry<Path, PackageMetadata> entry : loadedMetadata.entrySet()) {
+            if (fragmentPositions.containsKey(entry.getKey())) {
+                packageMetadataMap.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        delegate =
+                new DefaultMetadataResult(
+                        logger,
+                        packageMetadataMap,
+                        fragmentStamps,
+                        ignoreDuplicates,
+                        artifactIndex);
+    }
+
+    private void load(Collection<Path> paths) {
+        List<Path> missing = new ArrayList<>();
+        for (Path path : paths) {
+            if (!loadedFragments.contains(path)) {
+                missing.add(path);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        logger.debug("Lazily loading {} metadata fragments", missing.size());
+        Map<Path, PackageMetadata> metadata = reader.apply(missing);
+        loadedFragments.addAll(missing);
+
+        // Only fragments providing the same coordinates can provide the same artifacts
+        Set<Path> related = new HashSet<>(metadata.keySet());
+        for (PackageMetadata packageMetadata : metadata.values()) {
+            for (String coordinate : CoordinateIndex.coordinatesOf(packageMetadata)) {
+                related.addAll(fragmentsByCoordinates.getOrDefault(coordinate, List.of()));
+            }
+        }
+        List<Path> relatedFragments = new ArrayList<>(related);
+        relatedFragments.sort(Comparator.comparing(fragmentPositions::get));
+
+        delegate.add(metadata, relatedFragments);
+    }
+
+    /**
+     * Get fragments that were parsed so far.
+     *
+     * @return set of paths of parsed fragments
+     */
+    synchronized Set<Path> getLoadedFragments() {
+        return new HashSet<>(loadedFragments);
+    }
+
+    /**
+     * Apply given function to result holding all fragments that were parsed so far. The function
+     * is called while no more fragments can be parsed concurrently.
+     *
+     * @param function function to apply
+     * @return value returned by the function
+     */
+    synchronized <T> T withDelegate(Function<DefaultMetadataResult, T> function) {
+        return function.apply(delegate);
+    }
+
+    private void load(Artifact artifact) {
+        String key = CoordinateIndex.key(artifact.getGroupId(), artifact.getArtifactId());
+        load(fragmentsByCoordinates.getOrDefault(key, List.of()));
+    }
+
+    @Override
+    public synchronized ArtifactMetadata getMetadataFor(Artifact artifact) {
+        load(artifact);
+        return delegate.getMetadataFor(artifact);
+    }
+
+    @Override
+    public synchronized ArtifactMetadata getMetadataOrDefaultFor(Artifact artifact) {
+        load(artifact);
+        return delegate.getMetadataOrDefaultFor(artifact);
+    }
+
+    @Override
+    public synchronized Map<Path, PackageMetadata> getPackageMetadataMap() {
+        // Once all fragments are parsed, the map is not modified any longer
+        load(fragments);
+        return delegate.getPackageMetadataMap();
+    }
+}
@@ -0,0 +1,204 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.metadata.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.fedoraproject.xmvn.logging.Logger;
+import org.fedoraproject.xmvn.metadata.PackageMetadata;
+
+/**
+ * Persistent binary index of metadata fragments.
+ *
+ * <p>For every fragment the index holds its path, size, modification time and binary encoding of
+ * its {@link PackageMetadata}. Index file is memory-mapped and only its table of contents is read
+ * upfront; entries are decoded lazily, when the corresponding fragment is looked up. Entries whose
+ * size or modification time don't match the fragment on disk are stale and are never used.
+ *
+ * <p>After all fragments were looked up, the index can be saved. Unchanged entries are copied
+ * from the old index as-is, only fragments that were added or modified are re-encoded. The new
+ * index is written to a temporary file, which then atomically replaces the old one.
+ *
+ * <p>Instances of this class are thread-safe.
+ *
+ * @author Mikolaj Izdebski
+ */
+class MetadataIndex {
+    /** File magic, ASCII {@code XMvnIDX1}. */
+    private static final long MAGIC = 0x584D766E49445831L;
+
+    private record Entry(FragmentStamp stamp, ByteBuffer data) {}
+
+    private final Logger logger;
+
+    private final Path indexPath;
+
+    private final Map<String, Entry> entries;
+
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+
+    private volatile boolean modified;
+
+    private MetadataIndex(Logger logger, Path indexPath, Map<String, Entry> entries) {
+        this.logger = logger;
+        this.indexPath = indexPath;
+        this.entries = entries;
+    }
+
+    /**
+     * Open metadata index stored in given file. If the file does not exist or is not a valid
+     * index then an empty index is returned, which is going to be populated and written to given
+     * file once {@link #save} is called.
+     *
+     * @param logger logger
+     * @param indexPath path to index file
+     * @return metadata index, never {@code null}
+     */
+    public static MetadataIndex open(Logger logger, Path indexPath) {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getLong() != MAGIC) {
+                throw new IOException("Bad index file magic");
+            }
+            int n = buffer.getInt();
+            Map<String, long[]> toc = new LinkedHashMap<>();
+            for (int i = 0; i < n; i++) {
+                String key = PackageMetadataCodec.readString(buffer);
+                toc.put(
+                        key,
+                        new long[] {
+                            buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getInt()
+                        });
+            }
+            int dataStart = buffer.position();
+            for (Map.Entry<String, long[]> tocEntry : toc.entrySet()) {
+                long[] t = tocEntry.getValue();
+                ByteBuffer data = buffer.slice(Math.toIntExact(dataStart + t[2]), (int) t[3]);
+                entries.put(tocEntry.getKey(), new Entry(new FragmentStamp(t[0], t[1]), data));
+            }
+            logger.debug("Opened metadata index {} with {} entries", indexPath, entries.size());
+        } catch (NoSuchFileException e) {
+            logger.debug("Metadata index {} does not exist yet", indexPath);
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Ignoring unusable metadata index {}: {}", indexPath, e);
+            entries.clear();
+        }
+
+        return new MetadataIndex(logger, indexPath, entries);
+    }
+
+    /**
+     * Functional interface for reading metadata fragments, which is used in case index entry for
+     * given fragment is missing or stale.
+     */
+    @FunctionalInterface
+    interface FragmentReader {
+        PackageMetadata read(Path path) throws Exception;
+    }
+
+    /**
+     * Obtain package metadata of given fragment, either by decoding it from the index, or by
+     * reading the fragment using specified reader if index entry is missing or stale.
+     *
+     * @param path path to metadata fragment
+     * @param stamp current stamp of the fragment
+     * @param reader used to read fragments not covered by the index
+     * @return package metadata
+     * @throws Exception if fragment reader fails
+     */
+    public PackageMetadata read(Path path, FragmentStamp stamp, FragmentReader reader)
+            throws Exception {
+        String key = path.toString();
+
+        Entry entry = entries.get(key);
+        if (entry != null && entry.stamp().equals(stamp)) {
+            try {
+                PackageMetadata metadata = PackageMetadataCodec.decode(entry.data().duplicate());
+                current.put(key, entry);
+                return metadata;
+            } catch (RuntimeException e) {
+                logger.debug("Corrupt metadata index entry for {}: {}", path, e);
+            }
+        }
+
+        PackageMetadata metadata = reader.read(path);
+        current.put(key, new Entry(stamp, ByteBuffer.wrap(PackageMetadataCodec.encode(metadata))));
+        modified = true;
+        return metadata;
+    }
+
+    /**
+     * Write the index back to disk, if any of its entries changed. Only entries for fragments that
+     * were read through this index are retained, in given order.
+     *
+     * @param paths fragment paths to include in the index
+     */
+    public void save(Collection<Path> paths) {
+        Map<String, Entry> retained = new LinkedHashMap<>();
+        for (Path path : paths) {
+            String key = path.toString();
+            Entry entry = current.get(key);
+            if (entry != null) {
+                retained.put(key, entry);
+            }
+        }
+
+        if (!modified && retained.keySet().equals(entries.keySet())) {
+            return;
+        }
+
+        try (ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                DataOutputStream toc = new DataOutputStream(bos)) {
+            toc.writeLong(MAGIC);
+            toc.writeInt(retained.size());
+            long offset = 0;
+            for (Map.Entry<String, Entry> entry : retained.entrySet()) {
+                Entry e = entry.getValue();
+                PackageMetadataCodec.writeString(toc, entry.getKey());
+                toc.writeLong(e.stamp().size());
+                toc.writeLong(e.stamp().mtime());
+                toc.writeLong(offset);
+                toc.writeInt(e.data().remaining());
+                offset += e.data().remaining();
+            }
+            toc.flush();
+
+            AtomicFile.write(
+                    indexPath,
+                    channel -> {
+                        AtomicFile.writeFully(channel, ByteBuffer.wrap(bos.toByteArray()));
+                        for (Entry e : retained.values()) {
+                            AtomicFile.writeFully(channel, e.data().duplicate());
+                        }
+                    });
+            logger.debug("Saved metadata index {} with {} entries", indexPath, retained.size());
+        } catch (IOException e) {
+            logger.debug("Unable to save metadata index {}: {}", indexPath, e);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.metadata.impl;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.fedoraproject.xmvn.logging.Logger;
+import org.fedoraproject.xmvn.metadata.MetadataResult;
+
+/**
+ * Metrics describing cost of metadata loading. Counters are cumulative since creation or last
+ * {@link #reset}, while artifact-related metrics describe the most recently resolved or refreshed
+ * metadata result.
+ *
+ * <p>Instances of this class are thread-safe.
+ *
+ * @author Mikolaj Izdebski
+ */
+class MetadataMetrics implements MetadataMetricsMXBean {
+    static final String OBJECT_NAME = "org.fedoraproject.xmvn:type=MetadataMetrics";
+
+    private static final long[] HISTOGRAM_BOUNDS = {1, 5, 10, 50, 100, 500, 1000};
+
+    private final LongAdder metadataLoads = new LongAdder();
+
+    private final LongAdder metadataRefreshes = new LongAdder();
+
+    private final LongAdder fragmentsRead = new LongAdder();
+
+    private final LongAdder fragmentsFailed = new LongAdder();
+
+    private final LongAdder bytesRead = new LongAdder();
+
+    private final LongAdder parseTimeNanos = new LongAdder();
+
+    private final AtomicLongArray histogram = new AtomicLongArray(HISTOGRAM_BOUNDS.length + 1);
+
+    private Path slowestFragment;
+
+    private long slowestFragmentNanos;
+
+    /**
+     * Most recently recorded result. These metrics may be registered in platform MBean server and
+     * outlive the resolver, so the result must not be kept alive by them.
+     */
+    private volatile WeakReference<MetadataResult> result = new WeakReference<>(null);
+
+    /**
+     * Record successful read of a metadata fragment.
+     *
+     * @param path path to metadata fragment
+     * @param size size of the fragment on disk, in bytes
+     * @param nanos time it took to read the fragment, in nanoseconds
+     */
+    void recordFragment(Path path, long size, long nanos) {
+        fragmentsRead.increment();
+        bytesRead.add(size);
+        parseTimeNanos.add(nanos);
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int bucket = 0;
+        while (bucket < HISTOGRAM_BOUNDS.length && millis >= HISTOGRAM_BOUNDS[bucket]) {
+            bucket++;
+        }
+        histogram.incrementAndGet(bucket);
+
+        synchronized (this) {
+            if (slowestFragment == null || nanos > slowestFragmentNanos) {
+                slowestFragment = path;
+                slowestFragmentNanos = nanos;
+            }
+        }
+    }
+
+    /** Record failure to read a metadata fragment. */
+    void recordFailure() {
+        fragmentsFailed.increment();
+    }
+
+    /**
+     * Record metadata result that was resolved or refreshed.
+     *
+     * @param metadataResult metadata result
+     * @param refresh {@code true} if existing result was refreshed
+     */
+    void recordResult(MetadataResult metadataResult, boolean refresh) {
+        (refresh ? metadataRefreshes : metadataLoads).increment();
+        result = new WeakReference<>(metadataResult);
+    }
+
+    /**
+     * Compute metric of default metadata result backing the most recently recorded result. Lazy
+     * results modify their delegate as fragments are parsed, so the metric is computed while no
+     * fragments can be parsed.
+     *
+     * @param metric function computing the metric
+     * @param defaultValue value of the metric if no result was recorded, or if it is no longer used
+     * @return value of the metric
+     */
+    private <T> T getResultMetric(Function<DefaultMetadataResult, T> metric, T defaultValue) {
+        MetadataResult r = result.get();
+        if (r instanceof LazyMetadataResult lazyResult) {
+            return lazyResult.withDelegate(metric);
+        }
+        if (r instanceof DefaultMetadataResult defaultResult) {
+            return metric.apply(defaultResult);
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Register these metrics in platform MBean server, replacing any metrics registered before.
+     *
+     * @param logger logger
+     */
+    void register(Logger logger) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (JMException | RuntimeException e) {
+            logger.debug("Unable to register metadata metrics MBean: {}", e);
+        }
+    }
+
+    /**
+     * Write metrics in JSON format to given file.
+     *
+     * @param logger logger
+     * @param path path to file where metrics are written
+     */
+    void dump(Logger logger, Path path) {
+        try {
+            Files.writeString(path, toJson() + "\n");
+        } catch (IOException e) {
+            logger.debug("Unable to write metadata metrics to {}: {}", path, e);
+        }
+    }
+
+    @Override
+    public long getMetadataLoads() {
+        return metadataLoads.sum();
+    }
+
+    @Override
+    public long getMetadataRefreshes() {
+        return metadataRefreshes.sum();
+    }
+
+    @Override
+    public long getFragmentsRead() {
+        return fragmentsRead.sum();
+    }
+
+    @Override
+    public long getFragmentsFailed() {
+        return fragmentsFailed.sum();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long getParseTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(parseTimeNanos.sum());
+    }
+
+    @Override
+    public long[] getParseTimeHistogramBounds() {
+        return HISTOGRAM_BOUNDS.clone();
+    }
+
+    @Override
+    public long[] getParseTimeHistogram() {
+        long[] counts = new long[histogram.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = histogram.get(i);
+        }
+        return counts;
+    }
+
+    @Override
+    public synchronized String getSlowestFragment() {
+        return slowestFragment != null ? slowestFragment.toString() : null;
+    }
+
+    @Override
+    public synchronized long getSlowestFragmentMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slowestFragmentNanos);
+    }
+
+    @Override
+    public int getDuplicateArtifacts() {
+        return getResultMetric(DefaultMetadataResult::getDuplicateArtifactCount, 0);
+    }
+
+    @Override
+    public int getAliases() {
+        return getResultMetric(DefaultMetadataResult::getAliasCount, 0);
+    }
+
+    @Override
+    public int getArtifactIndexSize() {
+        return getResultMetric(r -> r.getArtifactIndex().size(), 0);
+    }
+
+    @Override
+    public long getArtifactIndexFootprint() {
+        return getResultMetric(r -> r.getArtifactIndex().getMemoryFootprint(), 0L);
+    }
+
+    @Override
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{");
+        sb.append("\"metadataLoads\":").append(getMetadataLoads());
+        sb.append(",\"metadataRefreshes\":").append(getMetadataRefreshes());
+        sb.append(",\"fragmentsRead\":").append(getFragmentsRead());
+        sb.append(",\"fragmentsFailed\":").append(getFragmentsFailed());
+        sb.append(",\"bytesRead\":").append(getBytesRead());
+        sb.append(",\"parseTimeMillis\":").append(getParseTimeMillis());
+        sb.append(",\"parseTimeHistogram\":{\"bounds\":");
+        appendArray(sb, getParseTimeHistogramBounds());
+        sb.append(",\"counts\":");
+        appendArray(sb, getParseTimeHistogram());
+        sb.append("}");
+        sb.append(",\"slowestFragment\":");
+        appendString(sb, getSlowestFragment());
+        sb.append(",\"slowestFragmentMillis\":").append(getSlowestFragmentMillis());
+        sb.append(",\"duplicateArtifacts\":").append(getDuplicateArtifacts());
+        sb.append(",\"aliases\":").append(getAliases());
+        sb.append(",\"artifactIndexSize\":").append(getArtifactIndexSize());
+        sb.append(",\"artifactIndexFootprint\":").append(getArtifactIndexFootprint());
+        return sb.append("}").toString();
+    }
+
+    private static void appendArray(StringBuilder sb, long[] values) {
+        sb.append("[");
+        for (int i = 0; i < values.length; i++) {
+            sb.append(i > 0 ? "," : "").append(values[i]);
+        }
+        sb.append("]");
+    }
+
+    private static void appendString(StringBuilder sb, String s) {
+        if (s == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (char c : s.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    @Override
+    public void reset() {
+        metadataLoads.reset();
+        metadataRefreshes.reset();
+        fragmentsRead.reset();
+        fragmentsFailed.reset();
+        bytesRead.reset();
+        parseTimeNanos.reset();
+        for (int i = 0; i < histogram.length(); i++) {
+            histogram.set(i, 0);
+        }
+        synchronized (this) {
+            slowestFragment = null;
+            slowestFragmentNanos = 0;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.metadata.impl;
+
+/**
+ * Management interface of metadata load metrics, exposed through JMX as {@code
+ * org.fedoraproject.xmvn:type=MetadataMetrics}.
+ *
+ * <p><strong>WARNING</strong>: This interface is part of internal implementation of XMvn and it is
+ * marked as public only for technical reasons. This interface is not part of XMvn API. Client code
+ * using XMvn should <strong>not</strong> reference it directly.
+ *
+ * @author Mikolaj Izdebski
+ */
+public interface MetadataMetricsMXBean {
+    /**
+     * @return number of times metadata was resolved from scratch
+     */
+    long getMetadataLoads();
+
+    /**
+     * @return number of times metadata was refreshed
+     */
+    long getMetadataRefreshes();
+
+    /**
+     * @return number of metadata fragments that were successfully read
+     */
+    long getFragmentsRead();
+
+    /**
+     * @return number of metadata fragments that could not be read
+     */
+    long getFragmentsFailed();
+
+    /**
+     * @return total size of metadata fragments read, in bytes, as stored on disk
+     */
+    long getBytesRead();
+
+    /**
+     * @return total time spent reading metadata fragments, in milliseconds, summed over all threads
+     */
+    long getParseTimeMillis();
+
+    /**
+     * @return upper bounds of buckets of parse time histogram, in milliseconds; the last bucket is
+     *     unbounded
+     */
+    long[] getParseTimeHistogramBounds();
+
+    /**
+     * @return parse time histogram, with one more bucket than there are bounds
+     */
+    long[] getParseTimeHistogram();
+
+    /**
+     * @return path to metadata fragment that took longest to read, or {@code null}
+     */
+    String getSlowestFragment();
+
+    /**
+     * @return time it took to read the slowest metadata fragment, in milliseconds
+     */
+    long getSlowestFragmentMillis();
+
+    /**
+     * @return number of artifacts with duplicate metadata in current metadata result
+     */
+    int getDuplicateArtifacts();
+
+    /**
+     * @return number of artifact aliases in current metadata result
+     */
+    int getAliases();
+
+    /**
+     * @return number of mappings held by artifact index of current metadata result
+     */
+    int getArtifactIndexSize();
+
+    /**
+     * @return approximate memory footprint of artifact index of current metadata result, in bytes
+     */
+    long getArtifactIndexFootprint();
+
+    /**
+     * Dump all metrics in JSON format.
+     *
+     * @return JSON object with all metrics
+     */
+    String toJson();
+
+    /** Reset all counters to zero. */
+    void reset();
+}
@@ -0,0 +1,236 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.metadata.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import org.fedoraproject.xmvn.metadata.ArtifactAlias;
+import org.fedoraproject.xmvn.metadata.ArtifactMetadata;
+import org.fedoraproject.xmvn.metadata.Dependency;
+import org.fedoraproject.xmvn.metadata.DependencyExclusion;
+import org.fedoraproject.xmvn.metadata.PackageMetadata;
+import org.fedoraproject.xmvn.metadata.SkippedArtifactMetadata;
+
+/**
+ * Compact binary encoding of {@link PackageMetadata}, used by persistent metadata indexes.
+ *
+ * <p>Encoded form carries exactly the same information as XML metadata, but can be decoded
+ * without any XML parsing. Strings are stored as length-prefixed UTF-8, with negative length
+ * denoting {@code null}.
+ *
+ * @author Mikolaj Izdebski
+ */
+final class PackageMetadataCodec {
+    private PackageMetadataCodec() {
+        // Avoid generating default public constructor
+    }
+
+    public static byte[] encode(PackageMetadata metadata) {
+        try (ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bos)) {
+            writeProperties(out, metadata.getProperties());
+            out.writeInt(metadata.getArtifacts().size());
+            for (ArtifactMetadata artifact : metadata.getArtifacts()) {
+                writeArtifact(out, artifact);
+            }
+            out.writeInt(metadata.getSkippedArtifacts().size());
+            for (SkippedArtifactMetadata skipped : metadata.getSkippedArtifacts()) {
+                writeString(out, skipped.getGroupId());
+                writeString(out, skipped.getArtifactId());
+                writeString(out, skipped.getExtension());
+                writeString(out, skipped.getClassifier());
+            }
+            out.flush();
+            return bos.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static PackageMetadata decode(ByteBuffer in) {
+        PackageMetadata metadata = new PackageMetadata();
+        metadata.setProperties(readProperties(in));
+        int nArtifacts = in.getInt();
+        List<ArtifactMetadata> artifacts = new ArrayList<>(nArtifacts);
+        for (int i = 0; i < nArtifacts; i++) {
+            artifacts.add(readArtifact(in));
+        }
+        metadata.setArtifacts(artifacts);
+        int nSkipped = in.getInt();
+        List<SkippedArtifactMetadata> skippedArtifacts = new ArrayList<>(nSkipped);
+        for (int i = 0; i < nSkipped; i++) {
+            SkippedArtifactMetadata skipped = new SkippedArtifactMetadata();
+            skipped.setGroupId(readString(in));
+            skipped.setArtifactId(readString(in));
+            skipped.setExtension(readString(in));
+            skipped.setClassifier(readString(in));
+            skippedArtifacts.add(skipped);
+        }
+        metadata.setSkippedArtifacts(skippedArtifacts);
+        return metadata;
+    }
+
+    private static void writeArtifact(DataOutputStream out, ArtifactMetadata artifact)
+            throws IOException {
+        writeString(out, artifact.getGroupId());
+        writeString(out, artifact.getArtifactId());
+        writeString(out, artifact.getExtension());
+        writeString(out, artifact.getClassifier());
+        writeString(out, artifact.getVersion());
+        writeString(out, artifact.getPath());
+        writeString(out, artifact.getNamespace());
+        writeProperties(out, artifact.getProperties());
+        out.writeInt(artifact.getCompatVersions().size());
+        for (String version : artifact.getCompatVersions()) {
+            writeString(out, version);
+        }
+        out.writeInt(artifact.getAliases().size());
+        for (ArtifactAlias alias : artifact.getAliases()) {
+            writeString(out, alias.getGroupId());
+            writeString(out, alias.getArtifactId());
+            writeString(out, alias.getExtension());
+            writeString(out, alias.getClassifier());
+        }
+        out.writeInt(artifact.getDependencies().size());
+        for (Dependency dependency : artifact.getDependencies()) {
+            writeString(out, dependency.getGroupId());
+            writeString(out, dependency.getArtifactId());
+            writeString(out, dependency.getExtension());
+            writeString(out, dependency.getClassifier());
+            writeString(out, dependency.getRequestedVersion());
+            writeString(out, dependency.getResolvedVersion());
+            writeString(out, dependency.getNamespace());
+            out.writeBoolean(dependency.isOptional());
+            out.writeInt(dependency.getExclusions().size());
+            for (DependencyExclusion exclusion : dependency.getExclusions()) {
+                writeString(out, exclusion.getGroupId());
+                writeString(out, exclusion.getArtifactId());
+            }
+        }
+    }
+
+    private static ArtifactMetadata readArtifact(ByteBuffer in) {
+        ArtifactMetadata artifact = new ArtifactMetadata();
+        artifact.setGroupId(readString(in));
+        artifact.setArtifactId(readString(in));
+        artifact.setExtension(readString(in));
+        artifact.setClassifier(readString(in));
+        artifact.setVersion(readString(in));
+        artifact.setPath(readString(in));
+        artifact.setNamespace(readString(in));
+        artifact.setProperties(readProperties(in));
+        int nVersions = in.getInt();
+        List<String> compatVersions = new ArrayList<>(nVersions);
+        for (int i = 0; i < nVersions; i++) {
+            compatVersions.add(readString(in));
+        }
+        artifact.setCompatVersions(compatVersions);
+        int nAliases = in.getInt();
+        List<ArtifactAlias> aliases = new ArrayList<>(nAliases);
+        for (int i = 0; i < nAliases; i++) {
+            ArtifactAlias alias = new ArtifactAlias();
+            alias.setGroupId(readString(in));
+            alias.setArtifactId(readString(in));
+            alias.setExtension(readString(in));
+            alias.setClassifier(readString(in));
+            aliases.add(alias);
+        }
+        artifact.setAliases(aliases);
+        int nDependencies = in.getInt();
+        List<Dependency> dependencies = new ArrayList<>(nDependencies);
+        for (int i = 0; i < nDependencies; i++) {
+            Dependency dependency = new Dependency();
+            dependency.setGroupId(readString(in));
+            dependency.setArtifactId(readString(in));
+            dependency.setExtension(readString(in));
+            dependency.setClassifier(readString(in));
+            dependency.setRequestedVersion(readString(in));
+            dependency.setResolvedVersion(readString(in));
+            dependency.setNamespace(readString(in));
+            dependency.setOptional(in.get() != 0);
+            int nExclusions = in.getInt();
+            List<DependencyExclusion> exclusions = new ArrayList<>(nExclusions);
+            for (int j = 0; j < nExclusions; j++) {
+                DependencyExclusion exclusion = new DependencyExclusion();
+                exclusion.setGroupId(readString(in));
+                exclusion.setArtifactId(readString(in));
+                exclusions.add(exclusion);
+            }
+            dependency.setExclusions(exclusions);
+            dependencies.add(dependency);
+        }
+        artifact.setDependencies(dependencies);
+        return artifact;
+    }
+
+    private static void writeProperties(DataOutputStream out, Properties properties)
+            throws IOException {
+        Set<String> keys = properties.stringPropertyNames();
+        out.writeInt(keys.size());
+        for (String key : keys) {
+            writeString(out, key);
+            writeString(out, properties.getProperty(key));
+        }
+    }
+
+    private static Properties readProperties(ByteBuffer in) {
+        Properties properties = new Properties();
+        int n = in.getInt();
+        for (int i = 0; i < n; i++) {
+            String key = readString(in);
+            properties.setProperty(key, readString(in));
+        }
+        return properties;
+    }
+
+    static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (in.hasArray()) {
+            String s =
+                    new String(
+                            in.array(),
+                            in.arrayOffset() + in.position(),
+                            length,
+                            StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+            return s;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,410 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.metadata.impl;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.fedoraproject.xmvn.metadata.ArtifactAlias;
+import org.fedoraproject.xmvn.metadata.ArtifactMetadata;
+import org.fedoraproject.xmvn.metadata.Dependency;
+import org.fedoraproject.xmvn.metadata.DependencyExclusion;
+import org.fedoraproject.xmvn.metadata.PackageMetadata;
+import org.fedoraproject.xmvn.metadata.SkippedArtifactMetadata;
+
+/**
+ * Streaming parser of metadata fragments.
+ *
+ * <p>This is a hand-written equivalent of parsing with {@code PackageMetadataERM}, which reads
+ * directly into metadata objects without going through the generic entity-relationship mapping.
+ * It is as strict as the generic parser: unknown, repeated or missing elements are reported as
+ * errors, so callers can fall back to {@link PackageMetadata#readFromXML} to get the same result
+ * or the same error.
+ *
+ * @author Mikolaj Izdebski
+ */
+final class PackageMetadataParser {
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+
+    private final XMLStreamReader cursor;
+
+    private final boolean skipExclusions;
+
+    private PackageMetadataParser(XMLStreamReader cursor, boolean skipExclusions) {
+        this.cursor = cursor;
+        this.skipExclusions = skipExclusions;
+    }
+
+    /**
+     * Parse metadata fragment.
+     *
+     * @param stream input stream containing UTF-8 encoded XML
+     * @param skipExclusions whether dependency exclusions should be skipped rather than read
+     * @return package metadata
+     * @throws XMLStreamException if the stream is not a valid metadata fragment
+     */
+    public static PackageMetadata parse(InputStream stream, boolean skipExclusions)
+            throws XMLStreamException {
+        XMLStreamReader cursor = XML_INPUT_FACTORY.createXMLStreamReader(stream, "UTF-8");
+        try {
+            PackageMetadataParser parser = new PackageMetadataParser(cursor, skipExclusions);
+            parser.expectStartElement("metadata");
+            PackageMetadata metadata = parser.parseMetadata();
+            if (parser.nextTag() != XMLStreamConstants.END_DOCUMENT) {
+                throw parser.error("Expected end of document");
+            }
+            return metadata;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private XMLStreamException error(String message) {
+        return new XMLStreamException(message, cursor.getLocation());
+    }
+
+    /**
+     * Advance to next start element, end element or end of document, skipping whitespace and
+     * comments.
+     */
+    private int nextTag() throws XMLStreamException {
+        while (cursor.hasNext()) {
+            int event = cursor.next();
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                case XMLStreamConstants.END_ELEMENT:
+                case XMLStreamConstants.END_DOCUMENT:
+                    return event;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                    if (!cursor.getText().isBlank()) {
+                        throw error("Unexpected text");
+                    }
+                    break;
+                case XMLStreamConstants.COMMENT:
+                    break;
+                default:
+                    throw error("Unexpected XML event " + event);
+            }
+        }
+        return XMLStreamConstants.END_DOCUMENT;
+    }
+
+    private void expectStartElement(String tag) throws XMLStreamException {
+        if (nextTag() != XMLStreamConstants.START_ELEMENT || !cursor.getLocalName().equals(tag)) {
+            throw error("Expected <" + tag + "> start element");
+        }
+    }
+
+    /**
+     * Advance to next child element of current element.
+     *
+     * @param seen names of unique child elements seen so far
+     * @return child element name, or {@code null} if end of parent element was reached
+     */
+    private String nextChild(Set<String> seen) throws XMLStreamException {
+        if (nextTag() != XMLStreamConstants.START_ELEMENT) {
+            return null;
+        }
+        String tag = cursor.getLocalName();
+        if (seen != null && !seen.add(tag)) {
+            throw error("Duplicate <" + tag + "> element");
+        }
+        return tag;
+    }
+
+    private XMLStreamException unexpected(String tag) {
+        return error("Unexpected <" + tag + "> element");
+    }
+
+    private void require(Object value, String tag, String parent) throws XMLStreamException {
+        if (value == null) {
+            throw error("Mandatory element <" + tag + "> of <" + parent + "> is missing");
+        }
+    }
+
+    private String text() throws XMLStreamException {
+        return cursor.getElementText();
+    }
+
+    /** Skip current element, including all its children. */
+    private void skip() throws XMLStreamException {
+        for (int depth = 1; depth > 0; ) {
+            int event = cursor.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private PackageMetadata parseMetadata() throws XMLStreamException {
+        PackageMetadata metadata = new PackageMetadata();
+        Set<String> seen = new HashSet<>();
+        for (String tag; (tag = nextChild(seen)) != null; ) {
+            switch (tag) {
+                case "uuid":
+                    skip();
+                    break;
+                case "properties":
+                    metadata.setProperties(parseProperties());
+                    break;
+                case "artifacts":
+                    List<ArtifactMetadata> artifacts = new ArrayList<>();
+                    while (nextChild(null) != null) {
+                        requireTag("artifact");
+                        artifacts.add(parseArtifact());
+                    }
+                    metadata.setArtifacts(artifacts);
+                    break;
+                case "skippedArtifacts":
+                    List<SkippedArtifactMetadata> skippedArtifacts = new ArrayList<>();
+                    while (nextChild(null) != null) {
+                        requireTag("skippedArtifact");
+                        skippedArtifacts.add(parseSkippedArtifact());
+                    }
+                    metadata.setSkippedArtifacts(skippedArtifacts);
+                    break;
+                default:
+                    throw unexpected(tag);
+            }
+        }
+        return metadata;
+    }
+
+    private void requireTag(String tag) throws XMLStreamException {
+        if (!cursor.getLocalName().equals(tag)) {
+            throw unexpected(cursor.getLocalName());
+        }
+    }
+
+    private Properties parseProperties() throws XMLStreamException {
+        Properties properties = new Properties();
+        for (String key; (key = nextChild(null)) != null; ) {
+            properties.setProperty(key, text());
+        }
+        return properties;
+    }
+
+    private ArtifactMetadata parseArtifact() throws XMLStreamException {
+        ArtifactMetadata artifact = new ArtifactMetadata();
+        String groupId = null;
+        String artifactId = null;
+        String version = null;
+        String path = null;
+        Set<String> seen = new HashSet<>();
+        for (String tag; (tag = nextChild(seen)) != null; ) {
+            switch (tag) {
+                case "groupId":
+                    artifact.setGroupId(groupId = text());
+                    break;
+                case "artifactId":
+                    artifact.setArtifactId(artifactId = text());
+                    break;
+                case "extension":
+                    artifact.setExtension(text());
+                    break;
+                case "classifier":
+                    artifact.setClassifier(text());
+                    break;
+                case "version":
+                    artifact.setVersion(version = text());
+                    break;
+                case "path":
+                    artifact.setPath(path = text());
+                    break;
+                case "namespace":
+                    artifact.setNamespace(text());
+                    break;
+                case "uuid":
+                    skip();
+                    break;
+                case "properties":
+                    artifact.setProperties(parseProperties());
+                    break;
+                case "compatVersions":
+                    List<String> compatVersions = new ArrayList<>();
+                    while (nextChild(null) != null) {
+                        requireTag("version");
+                        compatVersions.add(text());
+                    }
+                    artifact.setCompatVersions(compatVersions);
+                    break;
+                case "aliases":
+                    List<ArtifactAlias> aliases = new ArrayList<>();
+                    while (nextChild(null) != null) {
+                        requireTag("alias");
+                        aliases.add(parseAlias());
+                    }
+                    artifact.setAliases(aliases);
+                    break;
+                case "dependencies":
+                    List<Dependency> dependencies = new ArrayList<>();
+                    while (nextChild(null) != null) {
+                        requireTag("dependency");
+                        dependencies.add(parseDependency());
+                    }
+                    artifact.setDependencies(dependencies);
+                    break;
+                default:
+                    throw unexpected(tag);
+            }
+        }
+        require(groupId, "groupId", "artifact");
+        require(artifactId, "artifactId", "artifact");
+        require(version, "version", "artifact");
+        require(path, "path", "artifact");
+        return artifact;
+    }
+
+    private ArtifactAlias parseAlias() throws XMLStreamException {
+        ArtifactAlias alias = new ArtifactAlias();
+        String groupId = null;
+        String artifactId = null;
+        Set<String> seen = new HashSet<>();
+        for (String tag; (tag = nextChild(seen)) != null; ) {
+            switch (tag) {
+                case "groupId":
+                    alias.setGroupId(groupId = text());
+                    break;
+                case "artifactId":
+                    alias.setArtifactId(artifactId = text());
+                    break;
+                case "extension":
+                    alias.setExtension(text());
+                    break;
+                case "classifier":
+                    alias.setClassifier(text());
+                    break;
+                default:
+                    throw unexpected(tag);
+            }
+        }
+        require(groupId, "groupId", "alias");
+        require(artifactId, "artifactId", "alias");
+        return alias;
+    }
+
+    private Dependency parseDependency() throws XMLStreamException {
+        Dependency dependency = new Dependency();
+        String groupId = null;
+        String artifactId = null;
+        Set<String> seen = new HashSet<>();
+        for (String tag; (tag = nextChild(seen)) != null; ) {
+            switch (tag) {
+                case "groupId":
+                    dependency.setGroupId(groupId = text());
+                    break;
+                case "artifactId":
+                    dependency.setArtifactId(artifactId = text());
+                    break;
+                case "extension":
+                    dependency.setExtension(text());
+                    break;
+                case "classifier":
+                    dependency.setClassifier(text());
+                    break;
+                case "requestedVersion":
+                    dependency.setRequestedVersion(text());
+                    break;
+                case "resolvedVersion":
+                    dependency.setResolvedVersion(text());
+                    break;
+                case "namespace":
+                    dependency.setNamespace(text());
+                    break;
+                case "optional":
+                    dependency.setOptional(Boolean.valueOf(text()));
+                    break;
+                case "exclusions":
+                    if (skipExclusions) {
+                        skip();
+                        break;
+                    }
+                    List<DependencyExclusion> exclusions = new ArrayList<>();
+                    while (nextChild(null) != null) {
+                        requireTag("exclusion");
+                        exclusions.add(parseExclusion());
+                    }
+                    dependency.setExclusions(exclusions);
+                    break;
+                default:
+                    throw unexpected(tag);
+            }
+        }
+        require(groupId, "groupId", "dependency");
+        require(artifactId, "artifactId", "dependency");
+        return dependency;
+    }
+
+    private DependencyExclusion parseExclusion() throws XMLStreamException {
+        DependencyExclusion exclusion = new DependencyExclusion();
+        String groupId = null;
+        String artifactId = null;
+        Set<String> seen = new HashSet<>();
+        for (String tag; (tag = nextChild(seen)) != null; ) {
+            switch (tag) {
+                case "groupId":
+                    exclusion.setGroupId(groupId = text());
+                    break;
+                case "artifactId":
+                    exclusion.setArtifactId(artifactId = text());
+                    break;
+                default:
+                    throw unexpected(tag);
+            }
+        }
+        require(groupId, "groupId", "exclusion");
+        require(artifactId, "artifactId", "exclusion");
+        return exclusion;
+    }
+
+    private SkippedArtifactMetadata parseSkippedArtifact() throws XMLStreamException {
+        SkippedArtifactMetadata skipped = new SkippedArtifactMetadata();
+        String groupId = null;
+        String artifactId = null;
+        Set<String> seen = new HashSet<>();
+        for (String tag; (tag = nextChild(seen)) != null; ) {
+            switch (tag) {
+                case "groupId":
+                    skipped.setGroupId(groupId = text());
+                    break;
+                case "artifactId":
+                    skipped.setArtifactId(artifactId = text());
+                    break;
+                case "extension":
+                    skipped.setExtension(text());
+                    break;
+                case "classifier":
+                    skipped.setClassifier(text());
+                    break;
+                default:
+                    throw unexpected(tag);
+            }
+        }
+        require(groupId, "groupId", "skippedArtifact");
+        require(artifactId, "artifactId", "skippedArtifact");
+        return skipped;
+    }
+}
@@ -17,24 +17,109 @@ package org.fedoraproject.xmvn.resolver.impl;
 
 import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
+ * Content-addressed store of files generated by XMvn.
+ *
+ * <p>Cached files are stored in directories named after hash of their content. New files are
+ * written to a temporary file first, which is then atomically renamed, so that concurrent
+ * processes sharing the same cache never observe partially written files. Modification time of
+ * cache entries is used to track their last use, so that least recently used entries can be
+ * removed when total size of cached files exceeds configured limit. Eviction runs in background
+ * and is coordinated with other processes using a lock file, so that entries are never removed
+ * while they are being looked up.
+ *
  * @author Mikolaj Izdebski
  */
 class CacheManager {
     private static final String DIGEST_ALGORITHM = "SHA-256";
 
+    /** Cache entries used within this interval are never removed. */
+    private static final long MIN_EVICTION_AGE = TimeUnit.DAYS.toMillis(1);
+
+    /** Last use of cache entries is recorded with this granularity. */
+    private static final long TOUCH_INTERVAL = TimeUnit.HOURS.toMillis(1);
+
+    /** Cache size is checked at most once within this interval. */
+    private static final long EVICTION_INTERVAL = TimeUnit.DAYS.toMillis(1);
+
+    private static final String EVICTION_STAMP = ".last-eviction";
+
+    private static final String LOCK_FILE = ".lock";
+
+    /**
+     * Statistics of cache use by this cache manager.
+     *
+     * @param hits number of times cached file was reused
+     * @param stores number of files added to cache
+     * @param evictions number of cache entries removed
+     * @param evictedBytes total size of removed cache entries
+     */
+    record Statistics(long hits, long stores, long evictions, long evictedBytes) {}
+
     private final Path cacheHome;
 
+    private final CacheLock lock;
+
+    private long maxSize;
+
+    private final AtomicBoolean evictionChecked = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder stores = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder evictedBytes = new LongAdder();
+
     public CacheManager() {
         Path xdgHome = getPathDefault("HOME", System.getProperty("user.home"));
         Path cacheRoot = getPathDefault("XDG_CONFIG_HOME", xdgHome.resolve(".cache"));
         cacheHome = cacheRoot.resolve("xmvn");
+        lock = CacheLock.forCache(cacheHome);
+    }
+
+    CacheManager(Path cacheHome) {
+        this.cacheHome = cacheHome;
+        lock = CacheLock.forCache(cacheHome);
+    }
+
+    /**
+     * Set maximal total size of cached files, above which least recently used cache entries are
+     * removed. Cache is unbounded by default.
+     *
+     * @param maxSize maximal cache size in bytes, or zero or negative value for unbounded cache
+     */
+    void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    Statistics getStatistics() {
+        return new Statistics(hits.sum(), stores.sum(), evictions.sum(), evictedBytes.sum());
     }
 
     String hash(byte[] bytes) {
@@ -61,16 +146,315 @@ class CacheManager {
         return Path.of(value);
     }
 
+    /**
+     * Get path to a file in cache directory, named after hash of given key.
+     *
+     * @param key key identifying the cached data
+     * @param suffix file name suffix
+     * @return path to cache file, which may not exist yet
+     */
+    public Path getCachePath(String key, String suffix) {
+        return cacheHome.resolve(hash(key.getBytes(StandardCharsets.UTF_8)) + suffix);
+    }
+
     public Path cacheFile(String content, String fileName) throws IOException {
         byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
         String hash = hash(bytes);
         String hash1 = hash.substring(0, 2);
 
         Path cacheDir = cacheHome.resolve(hash1).resolve(hash);
-        Files.createDirectories(cacheDir);
-
         Path cacheFile = cacheDir.resolve(fileName);
-        Files.write(cacheFile, bytes);
+
+        lock.lockShared();
+        try {
+            // Cache directories are named after content hash, so existing file of the same size
+            // has the same content already
+            try {
+                BasicFileAttributes attrs =
+                        Files.readAttributes(cacheFile, BasicFileAttributes.class);
+                if (attrs.size() == bytes.length) {
+                    touch(cacheDir, attrs.lastModifiedTime());
+                    hits.increment();
+                    return cacheFile;
+                }
+            } catch (IOException e) {
+                // Not cached yet, or evicted by another process while being looked up
+            }
+
+            Files.createDirectories(cacheDir);
+            Path tempFile = Files.createTempFile(cacheDir, "." + fileName, ".tmp");
+            try {
+                Files.write(tempFile, bytes);
+                try {
+                    Files.move(tempFile, cacheFile, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+            stores.increment();
+            touch(cacheDir, null);
+        } finally {
+            lock.unlockShared();
+        }
+
+        if (maxSize > 0 && evictionChecked.compareAndSet(false, true)) {
+            Thread thread = new Thread(this::evictIfDue, "XMvn cache eviction");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
         return cacheFile;
     }
+
+    /**
+     * Reuse file that was previously returned by {@link #cacheFile}, recording use of its cache
+     * entry, so that it is not considered for eviction.
+     *
+     * @param cacheFile path to cached file
+     * @return {@code true} if the file is still cached, {@code false} if it was evicted or can't be
+     *     accessed
+     */
+    boolean reuseFile(Path cacheFile) {
+        lock.lockShared();
+        try {
+            FileTime lastUse = Files.getLastModifiedTime(cacheFile);
+            touch(cacheFile.getParent(), lastUse);
+            hits.increment();
+            return true;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            lock.unlockShared();
+        }
+    }
+
+    /**
+     * Record use of cache entry, unless it was already recorded recently. Must be called with cache
+     * lock held, so that the entry is not evicted before its use is recorded.
+     */
+    private static void touch(Path cacheDir, FileTime lastUse) throws IOException {
+        long now = System.currentTimeMillis();
+        if (lastUse == null || now - lastUse.toMillis() > TOUCH_INTERVAL) {
+            FileTime time = FileTime.fromMillis(now);
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(cacheDir)) {
+                for (Path path : ds) {
+                    Files.setLastModifiedTime(path, time);
+                }
+            }
+            Files.setLastModifiedTime(cacheDir, time);
+        }
+    }
+
+    private void evictIfDue() {
+        try {
+            Path stamp = cacheHome.resolve(EVICTION_STAMP);
+            try {
+                long lastEviction = Files.getLastModifiedTime(stamp).toMillis();
+                if (System.currentTimeMillis() - lastEviction < EVICTION_INTERVAL) {
+                    return;
+                }
+            } catch (NoSuchFileException e) {
+                Files.createDirectories(cacheHome);
+                Files.write(stamp, new byte[0]);
+            }
+            Files.setLastModifiedTime(stamp, FileTime.fromMillis(System.currentTimeMillis()));
+
+            evict();
+        } catch (IOException e) {
+            // Eviction is retried by the next process using the cache
+        }
+    }
+
+    private record Entry(Path dir, long size, long lastUse) {}
+
+    /**
+     * Remove least recently used cache entries until total size of cached files doesn't exceed
+     * maximal cache size. Recently used entries are never removed.
+     *
+     * @throws IOException if cache directory can't be read
+     */
+    void evict() throws IOException {
+        if (maxSize <= 0 || !Files.isDirectory(cacheHome)) {
+            return;
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        long totalSize = 0;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(cacheHome)) {
+            for (Path hashDir : ds) {
+                if (hashDir.getFileName().toString().length() != 2 || !Files.isDirectory(hashDir)) {
+                    continue;
+                }
+                try (DirectoryStream<Path> ds1 = Files.newDirectoryStream(hashDir)) {
+                    for (Path entryDir : ds1) {
+                        Entry entry = readEntry(entryDir);
+                        if (entry != null) {
+                            entries.add(entry);
+                            totalSize += entry.size();
+                        }
+                    }
+                }
+            }
+        }
+
+        entries.sort(Comparator.comparingLong(Entry::lastUse));
+        long now = System.currentTimeMillis();
+        for (Entry entry : entries) {
+            if (totalSize <= maxSize || now - entry.lastUse() < MIN_EVICTION_AGE) {
+                break;
+            }
+            try {
+                lock.lockExclusive();
+            } catch (IOException e) {
+                // Entries can't be removed safely without holding the lock
+                return;
+            }
+            try {
+                // Entry could have been used by another process since the cache was scanned
+                Entry current = readEntry(entry.dir());
+                if (current == null || now - current.lastUse() < MIN_EVICTION_AGE) {
+                    continue;
+                }
+                deleteEntry(entry.dir());
+                totalSize -= entry.size();
+                evictions.increment();
+                evictedBytes.add(entry.size());
+            } catch (IOException e) {
+                // Entry may be concurrently removed by another process
+            } finally {
+                lock.unlockExclusive();
+            }
+        }
+    }
+
+    private static Entry readEntry(Path entryDir) {
+        try {
+            long size = 0;
+            long lastUse = Files.getLastModifiedTime(entryDir).toMillis();
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(entryDir)) {
+                for (Path path : ds) {
+                    BasicFileAttributes attrs =
+                            Files.readAttributes(path, BasicFileAttributes.class);
+                    size += attrs.size();
+                    lastUse = Math.max(lastUse, attrs.lastModifiedTime().toMillis());
+                }
+            }
+            return new Entry(entryDir, size, lastUse);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void deleteEntry(Path entryDir) throws IOException {
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(entryDir)) {
+            for (Path path : ds) {
+                Files.deleteIfExists(path);
+            }
+        }
+        Files.deleteIfExists(entryDir);
+    }
+
+    /**
+     * Lock guarding cache entries against eviction while they are being used. The lock is held in
+     * shared mode while entries are looked up, touched or stored, and exclusively while last use of
+     * an entry is checked and the entry is removed. Since entries that were looked up have their
+     * last use recorded, they are never removed within {@link #MIN_EVICTION_AGE} after being
+     * returned.
+     *
+     * <p>The lock is backed by a file lock, so that it is effective across processes sharing the
+     * same cache. File locks are held on behalf of the whole JVM, therefore all cache managers of
+     * the same cache directory share a single instance, which holds at most one file lock at a
+     * time. If the file can't be locked, cache entries are still used, but not evicted.
+     */
+    private static final class CacheLock {
+        private static final Map<Path, CacheLock> LOCKS = new ConcurrentHashMap<>();
+
+        private final Path lockFile;
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private int sharedHolders;
+
+        private FileChannel sharedChannel;
+
+        private FileChannel exclusiveChannel;
+
+        private CacheLock(Path lockFile) {
+            this.lockFile = lockFile;
+        }
+
+        static CacheLock forCache(Path cacheHome) {
+            Path lockFile = cacheHome.toAbsolutePath().normalize().resolve(LOCK_FILE);
+            return LOCKS.computeIfAbsent(lockFile, CacheLock::new);
+        }
+
+        private FileChannel open() throws IOException {
+            try {
+                return FileChannel.open(
+                        lockFile,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+            } catch (NoSuchFileException e) {
+                Files.createDirectories(lockFile.getParent());
+                return open();
+            }
+        }
+
+        private static void close(FileChannel channel) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Closing the channel releases its lock regardless
+            }
+        }
+
+        void lockShared() {
+            lock.readLock().lock();
+            synchronized (this) {
+                if (sharedHolders++ == 0) {
+                    try {
+                        sharedChannel = open();
+                        sharedChannel.lock(0, Long.MAX_VALUE, true);
+                    } catch (IOException e) {
+                        if (sharedChannel != null) {
+                            close(sharedChannel);
+                            sharedChannel = null;
+                        }
+                    }
+                }
+            }
+        }
+
+        void unlockShared() {
+            synchronized (this) {
+                if (--sharedHolders == 0 && sharedChannel != null) {
+                    close(sharedChannel);
+                    sharedChannel = null;
+                }
+            }
+            lock.readLock().unlock();
+        }
+
+        void lockExclusive() throws IOException {
+            lock.writeLock().lock();
+            try {
+                exclusiveChannel = open();
+                exclusiveChannel.lock();
+            } catch (IOException | RuntimeException e) {
+                unlockExclusive();
+                throw e;
+            }
+        }
+
+        void unlockExclusive() {
+            if (exclusiveChannel != null) {
+                close(exclusiveChannel);
+                exclusiveChannel = null;
+            }
+            lock.writeLock().unlock();
+        }
+    }
 }
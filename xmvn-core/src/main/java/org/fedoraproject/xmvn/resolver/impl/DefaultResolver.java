@@ -18,7 +18,11 @@ package org.fedoraproject.xmvn.resolver.impl;
 import io.kojan.xml.XMLException;
 import java.io.IOException;
 import java.nio.file.Path;
-import java.util.Properties;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -31,6 +35,7 @@ import org.fedoraproject.xmvn.metadata.ArtifactMetadata;
 import org.fedoraproject.xmvn.metadata.MetadataRequest;
 import org.fedoraproject.xmvn.metadata.MetadataResolver;
 import org.fedoraproject.xmvn.metadata.MetadataResult;
+import org.fedoraproject.xmvn.metadata.PackageMetadata;
 import org.fedoraproject.xmvn.resolver.ResolutionRequest;
 import org.fedoraproject.xmvn.resolver.ResolutionResult;
 import org.fedoraproject.xmvn.resolver.Resolver;
@@ -48,15 +53,40 @@ import org.fedoraproject.xmvn.resolver.Resolver;
 @Singleton
 public class DefaultResolver implements Resolver {
 
-    private Logger logger;
-    private Configurator configurator;
-    private MetadataResolver metadataResolver;
+    private final Logger logger;
+    private final Configurator configurator;
+    private final MetadataResolver metadataResolver;
     private final EffectivePomGenerator pomGenerator = new EffectivePomGenerator();
-    private final CacheManager cacheManager = new CacheManager();
+
+    /** Guards metadata initialization and refreshes. */
+    private final Object metadataLock = new Object();
 
     private MetadataRequest metadataRequest;
-    private MetadataResult metadataResult;
+
+    private boolean precomputeRealPaths;
+
+    /** Key of generated effective POM, artifact metadata is compared by identity. */
+    private record EffectivePomKey(ArtifactMetadata metadata, Artifact artifact) {}
+
+    /**
+     * Metadata result together with real paths of artifact files and effective POMs generated for
+     * artifacts it refers to. Both are cached only for as long as the metadata they were obtained
+     * for.
+     */
+    private record Snapshot(
+            MetadataResult metadata,
+            Map<Path, Path> realPaths,
+            Map<EffectivePomKey, Path> effectivePoms) {}
+
+    /** Current snapshot, which is never modified, only replaced with refreshed one. */
+    private volatile Snapshot snapshot;
+
+    private static final int NEGATIVE_CACHE_SIZE = 4096;
+
+    /** Artifacts that could not be resolved with current metadata result. */
+    final NegativeCache negativeCache = new NegativeCache(NEGATIVE_CACHE_SIZE);
     MockAgent mockAgent;
+    CacheManager cacheManager = new CacheManager();
 
     public DefaultResolver(ServiceLocator locator) {
         this(
@@ -71,90 +101,277 @@ public class DefaultResolver implements Resolver {
         this.logger = logger;
         this.configurator = configurator;
         this.metadataResolver = metadataResolver;
+        this.mockAgent = new MockAgent(logger);
     }
 
     @Override
     public ResolutionResult resolve(ResolutionRequest request) {
-        Properties properties = new Properties();
-        properties.putAll(System.getProperties());
+        return resolveAll(List.of(request)).get(0);
+    }
 
-        Artifact artifact = request.getArtifact();
-        logger.debug("Trying to resolve artifact {}", artifact);
+    @Override
+    public List<ResolutionResult> resolveAll(Collection<ResolutionRequest> requests) {
+        // All artifacts are resolved against the same snapshot, even if other threads refresh it
+        Snapshot current = getSnapshot();
 
-        if (metadataRequest == null) {
-            ResolverSettings settings = configurator.getConfiguration().getResolverSettings();
-            metadataRequest = new MetadataRequest(settings.getMetadataRepositories());
-            metadataRequest.setIgnoreDuplicates(settings.isIgnoreDuplicateMetadata());
+        List<Artifact> artifacts = new ArrayList<>(requests.size());
+        List<ArtifactMatch> matches = new ArrayList<>(requests.size());
+        List<Integer> misses = new ArrayList<>();
+        boolean[] knownUnresolvable = new boolean[requests.size()];
+
+        for (ResolutionRequest request : requests) {
+            Artifact artifact = request.getArtifact();
+            logger.debug("Trying to resolve artifact {}", artifact);
+            artifacts.add(artifact);
+
+            if (negativeCache.contains(artifact)) {
+                logger.debug("Artifact {} is known to be unresolvable", artifact);
+                knownUnresolvable[matches.size()] = true;
+                matches.add(null);
+                continue;
+            }
+
+            ArtifactMatch match = findMetadata(current.metadata(), artifact);
+            if (match == null) {
+                misses.add(matches.size());
+            }
+            matches.add(match);
         }
-        if (metadataResult == null) {
-            metadataResult = metadataResolver.resolveMetadata(metadataRequest);
+
+        // Install all missing artifacts in one go, so that metadata needs to be refreshed only once
+        if (!misses.isEmpty()) {
+            List<Artifact> missingArtifacts = new ArrayList<>(misses.size());
+            for (int i : misses) {
+                missingArtifacts.add(artifacts.get(i));
+            }
+
+            if (!mockAgent.tryInstallArtifacts(missingArtifacts).isEmpty()) {
+                current = refreshSnapshot();
+                for (int i : misses) {
+                    matches.set(i, findMetadata(current.metadata(), artifacts.get(i)));
+                }
+            }
         }
-        ArtifactMetadata metadata = metadataResult.getMetadataFor(artifact);
 
-        String compatVersion;
-        if (metadata == null) {
-            metadata =
-                    metadataResult.getMetadataFor(artifact.withVersion(Artifact.DEFAULT_VERSION));
-            compatVersion = null;
-        } else {
-            compatVersion = artifact.getVersion();
+        List<ResolutionResult> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < artifacts.size(); i++) {
+            if (knownUnresolvable[i]) {
+                results.add(new DefaultResolutionResult());
+            } else if (matches.get(i) == null) {
+                logger.debug("Failed to resolve artifact: {}", artifacts.get(i));
+                addUnresolvable(current, artifacts.get(i));
+                results.add(new DefaultResolutionResult());
+            } else {
+                results.add(completeResolution(artifacts.get(i), matches.get(i), current));
+            }
         }
+        return results;
+    }
+
+    @Override
+    public void preload(Collection<ResolutionRequest> requests) {
+        Snapshot current = getSnapshot();
 
-        if (mockAgent == null) {
-            mockAgent = new MockAgent(logger);
+        int resolved = 0;
+        for (ResolutionRequest request : requests) {
+            ArtifactMatch match = findMetadata(current.metadata(), request.getArtifact());
+            if (match != null) {
+                completeResolution(request.getArtifact(), match, current);
+                resolved++;
+            }
         }
 
-        if (metadata == null && mockAgent.tryInstallArtifact(artifact)) {
-            metadataResult = metadataResolver.resolveMetadata(metadataRequest);
-            metadata = metadataResult.getMetadataFor(artifact);
+        logger.debug("Preloaded {} of {} artifacts", resolved, requests.size());
+    }
 
-            if (metadata == null) {
-                metadata =
-                        metadataResult.getMetadataFor(
-                                artifact.withVersion(Artifact.DEFAULT_VERSION));
-                compatVersion = null;
-            } else {
-                compatVersion = artifact.getVersion();
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (metadataLock) {
+                current = snapshot;
+                if (current == null) {
+                    metadataRequest = createMetadataRequest();
+                    current = createSnapshot(metadataResolver.resolveMetadata(metadataRequest));
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Snapshot refreshSnapshot() {
+        synchronized (metadataLock) {
+            // Always refresh, as the current snapshot may predate artifacts installed by caller
+            MetadataResult result =
+                    metadataResolver.refreshMetadata(metadataRequest, snapshot.metadata());
+            snapshot = createSnapshot(result);
+            negativeCache.clear();
+            return snapshot;
+        }
+    }
+
+    private Snapshot createSnapshot(MetadataResult result) {
+        Map<Path, Path> realPaths = new ConcurrentHashMap<>();
+
+        // Lazy metadata would need to parse all fragments just to learn paths of artifact files
+        if (precomputeRealPaths && !metadataRequest.isLazy()) {
+            for (PackageMetadata packageMetadata : result.getPackageMetadataMap().values()) {
+                for (ArtifactMetadata artifactMetadata : packageMetadata.getArtifacts()) {
+                    if (artifactMetadata.getPath() != null) {
+                        getRealPath(realPaths, Path.of(artifactMetadata.getPath()));
+                    }
+                }
             }
+            logger.debug("Precomputed real paths of {} artifact files", realPaths.size());
         }
 
+        return new Snapshot(result, realPaths, new ConcurrentHashMap<>());
+    }
+
+    private static Path getRealPath(Map<Path, Path> realPaths, Path path) {
+        return realPaths.computeIfAbsent(
+                path,
+                p -> {
+                    try {
+                        return p.toRealPath();
+                    } catch (IOException e) {
+                        return p;
+                    }
+                });
+    }
+
+    private void addUnresolvable(Snapshot expectedSnapshot, Artifact artifact) {
+        synchronized (metadataLock) {
+            // Artifact may have been installed since snapshot was taken
+            if (expectedSnapshot != snapshot) {
+                return;
+            }
+            negativeCache.add(artifact);
+        }
+        logger.debug(
+                "Negative cache holds {} artifacts, {} hits, {} misses",
+                negativeCache.size(),
+                negativeCache.getHits(),
+                negativeCache.getMisses());
+    }
+
+    private MetadataRequest createMetadataRequest() {
+        ResolverSettings settings = configurator.getConfiguration().getResolverSettings();
+        MetadataRequest metadataRequest = new MetadataRequest(settings.getMetadataRepositories());
+        metadataRequest.setIgnoreDuplicates(settings.isIgnoreDuplicateMetadata());
+        if (settings.getMetadataExecutor() != null) {
+            metadataRequest.setExecutorStrategy(settings.getMetadataExecutor());
+        }
+        metadataRequest.setCompactArtifactIndex(
+                Boolean.TRUE.equals(settings.isCompactArtifactIndex()));
+        metadataRequest.setPrecomputeUncompressedSize(
+                Boolean.TRUE.equals(settings.isPrecomputeUncompressedSize()));
+        precomputeRealPaths = Boolean.TRUE.equals(settings.isPrecomputeRealPaths());
+        if (settings.getMaxCacheSize() != null) {
+            cacheManager.setMaxSize(settings.getMaxCacheSize() * 1024L * 1024L);
+        }
+        String key = String.join("\n", settings.getMetadataRepositories());
+        String indexDirectory = settings.getMetadataIndexDirectory();
+        Path indexDir =
+                indexDirectory != null && !indexDirectory.isEmpty()
+                        ? Path.of(indexDirectory)
+                        : null;
+        if (indexDir != null || Boolean.TRUE.equals(settings.isMetadataIndex())) {
+            metadataRequest.setIndexPath(getIndexPath(indexDir, key, ".idx"));
+        }
+        if (Boolean.TRUE.equals(settings.isLazyMetadata())) {
+            metadataRequest.setLazy(true);
+            metadataRequest.setCoordinateIndexPath(getIndexPath(indexDir, key, ".gax"));
+        }
+        return metadataRequest;
+    }
+
+    /**
+     * Get path to index file for given set of metadata repositories. Index files kept in a shared
+     * directory are named the same way as in cache directory, so that all processes using the same
+     * metadata repositories share the same index file.
+     */
+    private Path getIndexPath(Path indexDir, String key, String suffix) {
+        Path cachePath = cacheManager.getCachePath(key, suffix);
+        return indexDir != null ? indexDir.resolve(cachePath.getFileName()) : cachePath;
+    }
+
+    /**
+     * Look up artifact property, which can be set either in artifact metadata or as a system
+     * property, the former taking precedence. Neither of property sets is copied.
+     */
+    private static String getProperty(ArtifactMetadata metadata, String key) {
+        String value = metadata.getProperties().getProperty(key);
+        return value != null ? value : System.getProperty(key);
+    }
+
+    /** Artifact metadata found for particular artifact, with compat version it was found under. */
+    private record ArtifactMatch(ArtifactMetadata metadata, String compatVersion) {}
+
+    private static ArtifactMatch findMetadata(MetadataResult metadataResult, Artifact artifact) {
+        ArtifactMetadata metadata = metadataResult.getMetadataOrDefaultFor(artifact);
         if (metadata == null) {
-            logger.debug("Failed to resolve artifact: {}", artifact);
-            return new DefaultResolutionResult();
+            return null;
         }
 
-        properties.putAll(metadata.getProperties());
+        // Metadata is indexed under its compat versions, or under the default version if it has
+        // no compat versions, so the version that matched can be told from the metadata itself
+        String version = artifact.getVersion();
+        List<String> compatVersions = metadata.getCompatVersions();
+        boolean exactMatch =
+                compatVersions.isEmpty()
+                        ? Artifact.DEFAULT_VERSION.equals(version)
+                        : compatVersions.contains(version);
+        return new ArtifactMatch(metadata, exactMatch ? version : null);
+    }
 
-        if (!"true".equals(properties.getProperty("xmvn.resolver.disableEffectivePom"))
+    private ResolutionResult completeResolution(
+            Artifact artifact, ArtifactMatch match, Snapshot current) {
+        ArtifactMetadata metadata = match.metadata();
+        // Artifact metadata is shared by all threads and must not be modified
+        String pathString = metadata.getPath();
+        if (!"true".equals(getProperty(metadata, "xmvn.resolver.disableEffectivePom"))
                 && "pom".equals(metadata.getExtension())
-                && (!"pom".equals(properties.getProperty("type")) || metadata.getPath() == null)) {
+                && (!"pom".equals(getProperty(metadata, "type")) || pathString == null)) {
             try {
-                String pom = pomGenerator.generateEffectivePom(metadata, artifact);
-
-                String artifactIdNormalized = artifact.getArtifactId().replace('/', '.');
-                String versionNormalized = artifact.getVersion().replace('/', '.');
-                String artifactFileName = artifactIdNormalized + "-" + versionNormalized + ".pom";
-                Path pomPath = cacheManager.cacheFile(pom, artifactFileName);
-
-                metadata.setPath(pomPath.toString());
+                pathString =
+                        getEffectivePom(current.effectivePoms(), metadata, artifact).toString();
             } catch (IOException | XMLException e) {
                 logger.warn("Failed to generate effective POM", e);
                 return new DefaultResolutionResult();
             }
         }
 
-        Path artifactPath = Path.of(metadata.getPath());
-        try {
-            artifactPath = artifactPath.toRealPath();
-        } catch (IOException e) {
-            // Ignore
-        }
+        Path artifactPath = getRealPath(current.realPaths(), Path.of(pathString));
 
         DefaultResolutionResult result = new DefaultResolutionResult(artifactPath);
         result.setNamespace(metadata.getNamespace());
-        result.setCompatVersion(compatVersion);
+        result.setCompatVersion(match.compatVersion());
 
         logger.debug("Artifact {} was resolved to {}", artifact, artifactPath);
         return result;
     }
+
+    private Path getEffectivePom(
+            Map<EffectivePomKey, Path> effectivePoms, ArtifactMetadata metadata, Artifact artifact)
+            throws IOException, XMLException {
+        EffectivePomKey key = new EffectivePomKey(metadata, artifact);
+        Path pomPath = effectivePoms.get(key);
+
+        // Cached file could have been evicted by another process since it was generated
+        if (pomPath == null || !cacheManager.reuseFile(pomPath)) {
+            String pom = pomGenerator.generateEffectivePom(metadata, artifact);
+
+            String artifactIdNormalized = artifact.getArtifactId().replace('/', '.');
+            String versionNormalized = artifact.getVersion().replace('/', '.');
+            String artifactFileName = artifactIdNormalized + "-" + versionNormalized + ".pom";
+            pomPath = cacheManager.cacheFile(pom, artifactFileName);
+            effectivePoms.put(key, pomPath);
+            logger.debug("Effective POM cache: {}", cacheManager.getStatistics());
+        } else {
+            logger.debug("Reusing effective POM {} for artifact {}", pomPath, artifact);
+        }
+
+        return pomPath;
+    }
 }
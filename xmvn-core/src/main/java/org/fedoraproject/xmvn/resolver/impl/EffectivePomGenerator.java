@@ -40,11 +40,16 @@ class EffectivePomGenerator {
         return value;
     }
 
-    public String generateEffectivePom(ArtifactMetadata metadata, Artifact artifact)
-            throws XMLException {
+    /** Artifact coordinates together with its dependencies, from which effective POM is built. */
+    private record EffectivePom(Artifact artifact, List<Dependency> dependencies) {}
 
-        List<Dependency> dependencies = metadata.getDependencies();
+    /**
+     * Entity model of effective POM. Model doesn't depend on any particular artifact, so it is
+     * built only once and shared by all generated POMs.
+     */
+    private static final Entity<EffectivePom, ?> PROJECT_ENTITY = createProjectEntity();
 
+    private static Entity<EffectivePom, ?> createProjectEntity() {
         var exclusionEntity =
                 Entity.of(
                         "exclusion",
@@ -84,22 +89,24 @@ class EffectivePomGenerator {
                                 dep -> getDefault(dep.getExclusions(), List::isEmpty),
                                 null));
 
-        var projectEntity =
-                Entity.of(
-                        "project",
-                        null,
-                        Attribute.of("modelVersion", x -> "4.0.0", null),
-                        Attribute.of("groupId", x -> artifact.getGroupId(), null),
-                        Attribute.of("artifactId", x -> artifact.getArtifactId(), null),
-                        Attribute.of("version", x -> artifact.getVersion(), null),
-                        Relationship.ofSingular(
-                                Entity.of(
-                                        "dependencies",
-                                        null,
-                                        Relationship.of(dependencyEntity, x -> x, null)),
-                                x -> getDefault(dependencies, List::isEmpty),
-                                null));
+        return Entity.of(
+                "project",
+                null,
+                Attribute.of("modelVersion", x -> "4.0.0", null),
+                Attribute.of("groupId", x -> x.artifact().getGroupId(), null),
+                Attribute.of("artifactId", x -> x.artifact().getArtifactId(), null),
+                Attribute.of("version", x -> x.artifact().getVersion(), null),
+                Relationship.ofSingular(
+                        Entity.of(
+                                "dependencies",
+                                null,
+                                Relationship.of(dependencyEntity, x -> x, null)),
+                        x -> getDefault(x.dependencies(), List::isEmpty),
+                        null));
+    }
 
-        return projectEntity.toXML(null);
+    public String generateEffectivePom(ArtifactMetadata metadata, Artifact artifact)
+            throws XMLException {
+        return PROJECT_ENTITY.toXML(new EffectivePom(artifact, metadata.getDependencies()));
     }
 }
@@ -15,14 +15,18 @@
  */
 package org.fedoraproject.xmvn.resolver.impl;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.net.StandardProtocolFamily;
 import java.net.UnixDomainSocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.nio.channels.SocketChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import org.fedoraproject.xmvn.artifact.Artifact;
 import org.fedoraproject.xmvn.logging.Logger;
 
@@ -85,40 +89,103 @@ class MockAgent {
         }
     }
 
-    private ByteBuffer recv(SocketChannel ch, int n) throws IOException {
-        ByteBuffer buf = ByteBuffer.allocate(n);
-        while (buf.remaining() > 0 && ch.read(buf) >= 0) {}
-        buf.flip();
-        return buf;
-    }
-
-    private boolean parseResponse(ByteBuffer resp) {
-        if (resp.limit() >= 3 && resp.get() == 'o' && resp.get() == 'k' && resp.get() == '\n') {
-            logger.info("Artifact was successfully installed");
+    private boolean parseResponse(Artifact artifact, String resp) {
+        if ("ok".equals(resp)) {
+            logger.info("Artifact {} was successfully installed", artifact);
             return true;
         }
-        logger.info("Artifact was not installed");
+        logger.info("Artifact {} was not installed", artifact);
         return false;
     }
 
-    private boolean sendCommand(String command) {
-        if (socketPath == null) {
-            return false;
+    /**
+     * Send install commands for given artifacts over a single connection. All commands are sent
+     * upfront and then responses are read, in the same order. If the connection is closed before
+     * all commands are answered then remaining commands need to be sent again, over a new
+     * connection.
+     *
+     * @param artifacts artifacts to install, not empty
+     * @param installed list to which successfully installed artifacts are added
+     * @return number of commands that were processed, at least one
+     */
+    private int sendCommands(List<Artifact> artifacts, List<Artifact> installed) {
+        StringBuilder commands = new StringBuilder();
+        for (Artifact artifact : artifacts) {
+            String command = "install %s\n".formatted(formatDep(artifact, null, null));
+            logger.debug("Trying to install artifact with mock PM command: {}", command);
+            commands.append(command);
         }
-        logger.debug("Trying to install artifact with mock PM command: {}", command);
+
         UnixDomainSocketAddress socketAddress = UnixDomainSocketAddress.of(socketPath);
         try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
             channel.connect(socketAddress);
-            send(channel, ByteBuffer.wrap(command.getBytes(StandardCharsets.UTF_8)));
-            return parseResponse(recv(channel, 3));
+
+            // Mock may close the connection after answering a single command, in which case
+            // sending further commands fails, but already sent responses can still be read
+            IOException sendException = null;
+            try {
+                send(
+                        channel,
+                        ByteBuffer.wrap(commands.toString().getBytes(StandardCharsets.UTF_8)));
+            } catch (IOException e) {
+                sendException = e;
+            }
+
+            BufferedReader reader =
+                    new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+            for (int i = 0; i < artifacts.size(); i++) {
+                String response;
+                try {
+                    response = reader.readLine();
+                } catch (IOException e) {
+                    if (i > 0) {
+                        return i;
+                    }
+                    throw e;
+                }
+                if (response == null) {
+                    if (i > 0) {
+                        logger.debug(
+                                "Mock PM closed connection after {} of {} commands",
+                                i,
+                                artifacts.size());
+                        return i;
+                    }
+                    if (sendException != null) {
+                        throw sendException;
+                    }
+                }
+                if (parseResponse(artifacts.get(i), response)) {
+                    installed.add(artifacts.get(i));
+                } else if (response == null) {
+                    return 1;
+                }
+            }
+            return artifacts.size();
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
 
+    /**
+     * Try to install given artifacts using mock package manager. Install commands for all
+     * artifacts are pipelined over a single connection, if mock supports that.
+     *
+     * @param artifacts artifacts to install
+     * @return artifacts that were successfully installed, in the order they were requested
+     */
+    public List<Artifact> tryInstallArtifacts(List<Artifact> artifacts) {
+        List<Artifact> installed = new ArrayList<>();
+        if (socketPath == null) {
+            return installed;
+        }
+        for (int done = 0; done < artifacts.size(); ) {
+            done += sendCommands(artifacts.subList(done, artifacts.size()), installed);
+        }
+        return installed;
+    }
+
     public boolean tryInstallArtifact(Artifact artifact) {
-        String dependency = formatDep(artifact, null, null);
-        String command = "install %s\n".formatted(dependency);
-        return sendCommand(command);
+        return !tryInstallArtifacts(List.of(artifact)).isEmpty();
     }
 }
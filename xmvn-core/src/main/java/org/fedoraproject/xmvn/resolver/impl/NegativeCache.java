@@ -0,0 +1,90 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.resolver.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.fedoraproject.xmvn.artifact.Artifact;
+
+/**
+ * Bounded cache of artifacts that could not be resolved. When the cache is full, least recently
+ * looked up artifacts are forgotten first.
+ *
+ * <p>Instances of this class are thread-safe.
+ *
+ * @author Mikolaj Izdebski
+ */
+class NegativeCache {
+    private final Map<Artifact, Boolean> artifacts;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    public NegativeCache(int maxSize) {
+        artifacts =
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Artifact, Boolean> eldest) {
+                        return size() > maxSize;
+                    }
+                };
+    }
+
+    /**
+     * Check whether given artifact is known to be unresolvable.
+     *
+     * @param artifact artifact to check
+     * @return {@code true} if artifact was previously found to be unresolvable
+     */
+    public boolean contains(Artifact artifact) {
+        boolean found;
+        synchronized (artifacts) {
+            found = artifacts.get(artifact) != null;
+        }
+        (found ? hits : misses).increment();
+        return found;
+    }
+
+    public void add(Artifact artifact) {
+        synchronized (artifacts) {
+            artifacts.put(artifact, Boolean.TRUE);
+        }
+    }
+
+    public void clear() {
+        synchronized (artifacts) {
+            artifacts.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (artifacts) {
+            return artifacts.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+}
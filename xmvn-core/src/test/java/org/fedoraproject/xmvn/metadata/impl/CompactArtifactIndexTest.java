@@ -0,0 +1,133 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.metadata.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.fedoraproject.xmvn.artifact.Artifact;
+import org.fedoraproject.xmvn.metadata.ArtifactMetadata;
+import org.fedoraproject.xmvn.metadata.MetadataRequest;
+import org.fedoraproject.xmvn.metadata.MetadataResult;
+import org.fedoraproject.xmvn.test.AbstractTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author Mikolaj Izdebski
+ */
+class CompactArtifactIndexTest extends AbstractTest {
+    @TempDir private Path tempDir;
+
+    private static Artifact randomArtifact(Random random) {
+        return Artifact.of(
+                "gid" + random.nextInt(10),
+                "aid" + random.nextInt(100),
+                "ext" + random.nextInt(2),
+                random.nextBoolean() ? "" : "cla",
+                random.nextInt(4) == 0 ? Artifact.DEFAULT_VERSION : "ver" + random.nextInt(3));
+    }
+
+    @Test
+    void matchesHashIndex() throws Exception {
+        ArtifactIndex expected = new HashArtifactIndex();
+        ArtifactIndex actual = new CompactArtifactIndex();
+        Random random = new Random(42);
+        List<Artifact> artifacts = new ArrayList<>();
+
+        for (int i = 0; i < 20000; i++) {
+            Artifact artifact = randomArtifact(random);
+            artifacts.add(artifact);
+            if (random.nextInt(3) == 0) {
+                expected.remove(artifact);
+                actual.remove(artifact);
+            } else {
+                ArtifactMetadata metadata = new ArtifactMetadata();
+                expected.put(artifact, metadata);
+                actual.put(artifact, metadata);
+            }
+            assertThat(actual.size()).isEqualTo(expected.size());
+        }
+
+        for (Artifact artifact : artifacts) {
+            assertThat(actual.get(artifact)).isSameAs(expected.get(artifact));
+            assertThat(actual.getOrDefaultVersion(artifact))
+                    .isSameAs(expected.getOrDefaultVersion(artifact));
+        }
+        assertThat(actual.get(Artifact.of("foo:bar"))).isNull();
+        assertThat(actual.getMemoryFootprint()).isPositive();
+    }
+
+    @Test
+    void artifactWithPath() throws Exception {
+        ArtifactIndex index = new CompactArtifactIndex();
+        Artifact artifact = Artifact.of("gid:aid:1.2.3");
+        index.put(artifact, new ArtifactMetadata());
+
+        assertThat(index.get(artifact)).isNotNull();
+        assertThat(index.get(artifact.withPath(Path.of("/foo/bar")))).isNull();
+    }
+
+    private static void assertDefaultVersionFallback(ArtifactIndex index) {
+        ArtifactMetadata compatMetadata = new ArtifactMetadata();
+        ArtifactMetadata defaultMetadata = new ArtifactMetadata();
+        index.put(Artifact.of("gid:aid:1.2.3"), compatMetadata);
+        index.put(Artifact.of("gid:aid:SYSTEM"), defaultMetadata);
+        index.put(Artifact.of("gid:other:1.2.3"), compatMetadata);
+
+        assertThat(index.getOrDefaultVersion(Artifact.of("gid:aid:1.2.3")))
+                .isSameAs(compatMetadata);
+        assertThat(index.getOrDefaultVersion(Artifact.of("gid:aid:4.5"))).isSameAs(defaultMetadata);
+        assertThat(index.getOrDefaultVersion(Artifact.of("gid:aid:SYSTEM")))
+                .isSameAs(defaultMetadata);
+        assertThat(index.getOrDefaultVersion(Artifact.of("gid:other:4.5"))).isNull();
+        assertThat(index.getOrDefaultVersion(Artifact.of("gid:aid:jar:cla:4.5"))).isNull();
+        assertThat(index.getOrDefaultVersion(Artifact.of("gid:aid:4.5").withPath(Path.of("/foo"))))
+                .isNull();
+
+        index.remove(Artifact.of("gid:aid:SYSTEM"));
+        assertThat(index.getOrDefaultVersion(Artifact.of("gid:aid:4.5"))).isNull();
+        assertThat(index.getOrDefaultVersion(Artifact.of("gid:aid:1.2.3")))
+                .isSameAs(compatMetadata);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void defaultVersionFallback() throws Exception {
+        assertDefaultVersionFallback(new HashArtifactIndex());
+        assertDefaultVersionFallback(new CompactArtifactIndex());
+    }
+
+    @Test
+    void duplicateMetadata() throws Exception {
+        Files.copy(Path.of("src/test/resources/simple.xml"), tempDir.resolve("a.xml"));
+        Files.copy(Path.of("src/test/resources/simple.xml"), tempDir.resolve("b.xml"));
+        MetadataRequest request = new MetadataRequest(List.of(tempDir.toString()));
+        request.setCompactArtifactIndex(true);
+        MetadataResult result = new DefaultMetadataResolver(locator).resolveMetadata(request);
+
+        Artifact artifact = Artifact.of("org.codehaus.plexus", "plexus-ant-factory", "1.0");
+        assertThat(result.getMetadataFor(artifact)).isNull();
+
+        request.setIgnoreDuplicates(false);
+        result = new DefaultMetadataResolver(locator).resolveMetadata(request);
+        assertThat(result.getMetadataFor(artifact)).isNotNull();
+    }
+}
@@ -0,0 +1,108 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.metadata.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import org.fedoraproject.xmvn.metadata.PackageMetadata;
+import org.fedoraproject.xmvn.test.AbstractTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author Mikolaj Izdebski
+ */
+class MetadataIndexTest extends AbstractTest {
+    @TempDir private Path tempDir;
+
+    private DefaultMetadataResolver reader;
+
+    private Path repoDir;
+
+    private Path indexPath;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        reader = new DefaultMetadataResolver(locator);
+        repoDir = Files.createDirectory(tempDir.resolve("repo"));
+        indexPath = tempDir.resolve("cache").resolve("metadata.idx");
+        Files.copy(Path.of("src/test/resources/metadata1.xml"), repoDir.resolve("a.xml"));
+        Files.copy(Path.of("src/test/resources/simple.xml"), repoDir.resolve("b.xml"));
+    }
+
+    private static void assertSameMetadata(
+            Map<Path, PackageMetadata> actual, Map<Path, PackageMetadata> expected)
+            throws Exception {
+        assertThat(actual.keySet()).containsExactlyElementsOf(expected.keySet());
+        for (Path path : expected.keySet()) {
+            assertThat(actual.get(path).toXML()).isEqualTo(expected.get(path).toXML());
+        }
+    }
+
+    @Test
+    void indexMatchesXml() throws Exception {
+        List<String> repos = List.of(repoDir.toString());
+        Map<Path, PackageMetadata> expected = reader.readMetadata(repos);
+
+        assertSameMetadata(reader.readMetadata(repos, indexPath), expected);
+        assertThat(indexPath).isRegularFile();
+
+        FileTime indexTime = Files.getLastModifiedTime(indexPath);
+        assertSameMetadata(reader.readMetadata(repos, indexPath), expected);
+        assertThat(Files.getLastModifiedTime(indexPath)).isEqualTo(indexTime);
+    }
+
+    @Test
+    void staleEntryIsReplaced() throws Exception {
+        List<String> repos = List.of(repoDir.toString());
+        reader.readMetadata(repos, indexPath);
+
+        Path fragment = repoDir.resolve("a.xml");
+        Files.writeString(
+                fragment, Files.readString(fragment).replace("/foo/bar", "/foo/bar/baz"));
+        Files.setLastModifiedTime(fragment, FileTime.fromMillis(1000));
+
+        Map<Path, PackageMetadata> map = reader.readMetadata(repos, indexPath);
+        assertThat(map.get(fragment).getArtifacts().get(0).getPath()).isEqualTo("/foo/bar/baz");
+        assertSameMetadata(reader.readMetadata(repos, indexPath), reader.readMetadata(repos));
+    }
+
+    @Test
+    void removedFragmentIsDropped() throws Exception {
+        List<String> repos = List.of(repoDir.toString());
+        reader.readMetadata(repos, indexPath);
+
+        Files.delete(repoDir.resolve("b.xml"));
+
+        Map<Path, PackageMetadata> map = reader.readMetadata(repos, indexPath);
+        assertThat(map).hasSize(1).containsKey(repoDir.resolve("a.xml"));
+    }
+
+    @Test
+    void corruptIndexIsIgnored() throws Exception {
+        List<String> repos = List.of(repoDir.toString());
+        Files.createDirectories(indexPath.getParent());
+        Files.writeString(indexPath, "garbage");
+
+        assertSameMetadata(reader.readMetadata(repos, indexPath), reader.readMetadata(repos));
+    }
+}
@@ -0,0 +1,157 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.metadata.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.fedoraproject.xmvn.artifact.Artifact;
+import org.fedoraproject.xmvn.logging.Logger;
+import org.fedoraproject.xmvn.metadata.MetadataRequest;
+import org.fedoraproject.xmvn.metadata.MetadataResult;
+import org.fedoraproject.xmvn.test.AbstractTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author Mikolaj Izdebski
+ */
+class MetadataMetricsTest extends AbstractTest {
+    @TempDir private Path tempDir;
+
+    private DefaultMetadataResolver resolver;
+
+    private MetadataRequest request;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        resolver = new DefaultMetadataResolver(locator);
+        Files.copy(Path.of("src/test/resources/metadata1.xml"), tempDir.resolve("a.xml"));
+        Files.copy(Path.of("src/test/resources/simple.xml"), tempDir.resolve("b.xml"));
+        Files.copy(Path.of("src/test/resources/simple.xml"), tempDir.resolve("c.xml"));
+        Files.writeString(tempDir.resolve("d.xml"), "garbage");
+        request = new MetadataRequest(List.of(tempDir.toString()));
+    }
+
+    @Test
+    void loadMetrics() throws Exception {
+        MetadataResult result = resolver.resolveMetadata(request);
+        MetadataMetrics metrics = resolver.getMetrics();
+
+        long bytes = 0;
+        for (String name : List.of("a.xml", "b.xml", "c.xml")) {
+            bytes += Files.size(tempDir.resolve(name));
+        }
+
+        assertThat(metrics.getMetadataLoads()).isEqualTo(1);
+        assertThat(metrics.getMetadataRefreshes()).isZero();
+        assertThat(metrics.getFragmentsRead()).isEqualTo(3);
+        assertThat(metrics.getFragmentsFailed()).isEqualTo(1);
+        assertThat(metrics.getBytesRead()).isEqualTo(bytes);
+        assertThat(Arrays.stream(metrics.getParseTimeHistogram()).sum()).isEqualTo(3);
+        assertThat(metrics.getParseTimeHistogram())
+                .hasSize(metrics.getParseTimeHistogramBounds().length + 1);
+        assertThat(metrics.getSlowestFragment()).startsWith(tempDir.toString());
+        assertThat(metrics.getDuplicateArtifacts()).isEqualTo(2);
+        assertThat(metrics.getAliases()).isEqualTo(1);
+        assertThat(metrics.getArtifactIndexSize()).isPositive();
+        assertThat(metrics.getArtifactIndexFootprint()).isPositive();
+        assertThat(metrics.toJson())
+                .startsWith("{\"metadataLoads\":1,")
+                .contains("\"fragmentsRead\":3,")
+                .contains("\"duplicateArtifacts\":2,")
+                .endsWith("}");
+        Reference.reachabilityFence(result);
+
+        metrics.reset();
+        assertThat(metrics.getFragmentsRead()).isZero();
+        assertThat(metrics.getSlowestFragment()).isNull();
+        assertThat(metrics.toJson()).contains("\"slowestFragment\":null,");
+    }
+
+    @Test
+    void refreshMetrics() throws Exception {
+        MetadataResult result = resolver.resolveMetadata(request);
+        Files.delete(tempDir.resolve("c.xml"));
+        MetadataResult refreshed = resolver.refreshMetadata(request, result);
+        MetadataMetrics metrics = resolver.getMetrics();
+
+        assertThat(metrics.getMetadataLoads()).isEqualTo(1);
+        assertThat(metrics.getMetadataRefreshes()).isEqualTo(1);
+        assertThat(metrics.getDuplicateArtifacts()).isZero();
+        assertThat(metrics.getFragmentsFailed()).isEqualTo(1);
+        Reference.reachabilityFence(refreshed);
+    }
+
+    @Test
+    void lazyResultMetrics() throws Exception {
+        request.setLazy(true);
+        request.setCoordinateIndexPath(tempDir.resolve("cache").resolve("coords.idx"));
+        resolver.resolveMetadata(request);
+
+        MetadataResult result = resolver.resolveMetadata(request);
+        MetadataMetrics metrics = resolver.getMetrics();
+        assertThat(metrics.getArtifactIndexSize()).isZero();
+
+        result.getMetadataFor(Artifact.of("gid", "aid", "ext", "cla", "1.2-beta3"));
+        assertThat(metrics.getArtifactIndexSize()).isPositive();
+        assertThat(metrics.getDuplicateArtifacts()).isZero();
+
+        result.getMetadataFor(Artifact.of("org.codehaus.plexus", "plexus-ant-factory", "1.0"));
+        assertThat(metrics.getDuplicateArtifacts()).isEqualTo(2);
+    }
+
+    @Test
+    void mbeanRegistration() throws Exception {
+        MetadataMetrics metrics = resolver.getMetrics();
+        metrics.register(locator.getService(Logger.class));
+        metrics.register(locator.getService(Logger.class));
+        MetadataResult result = resolver.resolveMetadata(request);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(MetadataMetrics.OBJECT_NAME);
+        try {
+            assertThat(server.getAttribute(name, "FragmentsRead")).isEqualTo(3L);
+            assertThat(server.invoke(name, "toJson", null, null)).isEqualTo(metrics.toJson());
+            Reference.reachabilityFence(result);
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    @Test
+    void resultIsNotRetained() throws Exception {
+        Reference<MetadataResult> result = new WeakReference<>(resolver.resolveMetadata(request));
+        for (int i = 0; i < 100 && result.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        MetadataMetrics metrics = resolver.getMetrics();
+        assertThat(result.get()).isNull();
+        assertThat(metrics.getFragmentsRead()).isEqualTo(3);
+        assertThat(metrics.getArtifactIndexSize()).isZero();
+    }
+}
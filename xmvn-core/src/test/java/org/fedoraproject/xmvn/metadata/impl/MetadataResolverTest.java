@@ -17,9 +17,16 @@ package org.fedoraproject.xmvn.metadata.impl;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 import org.fedoraproject.xmvn.artifact.Artifact;
+import org.fedoraproject.xmvn.logging.Logger;
+import org.fedoraproject.xmvn.logging.impl.ConsoleLogger;
 import org.fedoraproject.xmvn.metadata.ArtifactMetadata;
 import org.fedoraproject.xmvn.metadata.MetadataRequest;
 import org.fedoraproject.xmvn.metadata.MetadataResolver;
@@ -27,11 +34,14 @@ import org.fedoraproject.xmvn.metadata.MetadataResult;
 import org.fedoraproject.xmvn.test.AbstractTest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * @author Mikolaj Izdebski
  */
 class MetadataResolverTest extends AbstractTest {
+    @TempDir private Path tempDir;
+
     private MetadataResolver metadataResolver;
 
     @BeforeEach
@@ -153,4 +163,238 @@ class MetadataResolverTest extends AbstractTest {
         assertThat(am).isNotNull();
         assertThat(am.getPath()).isEqualTo("/usr/share/java/plexus/ant-factory-1.0.jar");
     }
+
+    @Test
+    void duplicatesAreSummarizedInSingleWarning() throws Exception {
+        List<String> warnings = new ArrayList<>();
+        List<String> debugMessages = new ArrayList<>();
+        Logger logger =
+                new ConsoleLogger() {
+                    @Override
+                    public void debug(String format, Object... args) {
+                        debugMessages.add(format);
+                    }
+
+                    @Override
+                    public void warn(String format, Object... args) {
+                        warnings.add(format + " " + Arrays.toString(args));
+                    }
+                };
+        String path1 = "src/test/resources/simple.xml";
+        String path2 = "src/test/../test/resources/simple.xml";
+        MetadataRequest request = new MetadataRequest(Arrays.asList(path1, path2));
+        request.setIgnoreDuplicates(false);
+        DefaultMetadataResult result =
+                (DefaultMetadataResult)
+                        new DefaultMetadataResolver(logger).resolveMetadata(request);
+
+        int duplicates = result.getDuplicateArtifactCount();
+        assertThat(duplicates).isPositive();
+        assertThat(warnings)
+                .containsExactly("Duplicate metadata for {} artifacts [" + duplicates + "]");
+        assertThat(debugMessages.stream().filter(m -> m.startsWith("Duplicate metadata")).toList())
+                .hasSize(duplicates);
+    }
+
+    @Test
+    void refreshAddedFragment() throws Exception {
+        Files.copy(Path.of("src/test/resources/metadata1.xml"), tempDir.resolve("a.xml"));
+        MetadataRequest request = new MetadataRequest(List.of(tempDir.toString()));
+        MetadataResult result = metadataResolver.resolveMetadata(request);
+
+        Artifact artifact = Artifact.of("org.codehaus.plexus", "plexus-ant-factory", "1.0");
+        assertThat(result.getMetadataFor(artifact)).isNull();
+
+        Files.copy(Path.of("src/test/resources/simple.xml"), tempDir.resolve("b.xml"));
+        MetadataResult refreshed = metadataResolver.refreshMetadata(request, result);
+
+        assertThat(refreshed).isNotSameAs(result);
+        assertThat(result.getPackageMetadataMap()).hasSize(1);
+        assertThat(result.getMetadataFor(artifact)).isNull();
+        assertThat(refreshed.getPackageMetadataMap()).hasSize(2);
+        assertThat(refreshed.getMetadataFor(artifact)).isNotNull();
+        assertThat(refreshed.getMetadataFor(Artifact.of("gid", "aid", "ext", "cla", "1.2-beta3")))
+                .isNotNull();
+    }
+
+    @Test
+    void refreshRemovedFragment() throws Exception {
+        Files.copy(Path.of("src/test/resources/metadata1.xml"), tempDir.resolve("a.xml"));
+        Files.copy(Path.of("src/test/resources/simple.xml"), tempDir.resolve("b.xml"));
+        MetadataRequest request = new MetadataRequest(List.of(tempDir.toString()));
+        MetadataResult result = metadataResolver.resolveMetadata(request);
+
+        Files.delete(tempDir.resolve("a.xml"));
+        MetadataResult refreshed = metadataResolver.refreshMetadata(request, result);
+
+        Artifact artifact = Artifact.of("gid", "aid", "ext", "cla", "1.2-beta3");
+        Artifact alias = Artifact.of("a-gid", "a-aid", "a-ext", "a-cla", "1.2-beta3");
+        Artifact other = Artifact.of("org.codehaus.plexus", "plexus-ant-factory", "1.0");
+        assertThat(refreshed.getPackageMetadataMap()).hasSize(1);
+        assertThat(refreshed.getMetadataFor(artifact)).isNull();
+        assertThat(refreshed.getMetadataFor(alias)).isNull();
+        assertThat(refreshed.getMetadataFor(other)).isNotNull();
+    }
+
+    @Test
+    void refreshDuplicates() throws Exception {
+        Files.copy(Path.of("src/test/resources/simple.xml"), tempDir.resolve("a.xml"));
+        MetadataRequest request = new MetadataRequest(List.of(tempDir.toString()));
+        MetadataResult result = metadataResolver.resolveMetadata(request);
+
+        Artifact artifact = Artifact.of("org.codehaus.plexus", "plexus-ant-factory", "1.0");
+        assertThat(result.getMetadataFor(artifact)).isNotNull();
+
+        Files.copy(Path.of("src/test/resources/simple.xml"), tempDir.resolve("b.xml"));
+        MetadataResult refreshed = metadataResolver.refreshMetadata(request, result);
+        assertThat(refreshed.getMetadataFor(artifact)).isNull();
+
+        Files.delete(tempDir.resolve("b.xml"));
+        refreshed = metadataResolver.refreshMetadata(request, refreshed);
+        assertThat(refreshed.getMetadataFor(artifact)).isNotNull();
+    }
+
+    @Test
+    void lazyLoading() throws Exception {
+        Path repoDir = Files.createDirectory(tempDir.resolve("repo"));
+        Files.copy(Path.of("src/test/resources/metadata1.xml"), repoDir.resolve("a.xml"));
+        Files.copy(Path.of("src/test/resources/simple.xml"), repoDir.resolve("b.xml"));
+        MetadataRequest request = new MetadataRequest(List.of(repoDir.toString()));
+        request.setLazy(true);
+        request.setCoordinateIndexPath(tempDir.resolve("cache").resolve("coords.idx"));
+
+        LazyMetadataResult result = (LazyMetadataResult) metadataResolver.resolveMetadata(request);
+        assertThat(result.getLoadedFragments()).hasSize(2);
+
+        result = (LazyMetadataResult) metadataResolver.resolveMetadata(request);
+        assertThat(result.getLoadedFragments()).isEmpty();
+
+        Artifact artifact = Artifact.of("org.codehaus.plexus", "plexus-ant-factory", "1.0");
+        ArtifactMetadata am = result.getMetadataFor(artifact);
+        assertThat(am).isNotNull();
+        assertThat(am.getPath()).isEqualTo("/usr/share/java/plexus/ant-factory-1.0.jar");
+        assertThat(result.getLoadedFragments()).containsExactly(repoDir.resolve("b.xml"));
+
+        assertThat(result.getMetadataFor(Artifact.of("foo:bar"))).isNull();
+        assertThat(result.getLoadedFragments()).hasSize(1);
+
+        assertThat(result.getPackageMetadataMap()).hasSize(2);
+        assertThat(result.getLoadedFragments()).hasSize(2);
+    }
+
+    @Test
+    void lazyDuplicates() throws Exception {
+        Path repoDir = Files.createDirectory(tempDir.resolve("repo"));
+        Files.copy(Path.of("src/test/resources/simple.xml"), repoDir.resolve("a.xml"));
+        Files.copy(Path.of("src/test/resources/simple.xml"), repoDir.resolve("b.xml"));
+        MetadataRequest request = new MetadataRequest(List.of(repoDir.toString()));
+        request.setLazy(true);
+        request.setCoordinateIndexPath(tempDir.resolve("cache").resolve("coords.idx"));
+        metadataResolver.resolveMetadata(request);
+
+        MetadataResult result = metadataResolver.resolveMetadata(request);
+        Artifact artifact = Artifact.of("org.codehaus.plexus", "plexus-ant-factory", "1.0");
+        assertThat(result.getMetadataFor(artifact)).isNull();
+    }
+
+    private static String artifactXml(String artifactId, String path) {
+        return """
+                <artifact>
+                  <groupId>gid</groupId>
+                  <artifactId>%s</artifactId>
+                  <version>1.0</version>
+                  <path>%s</path>
+                </artifact>
+                """
+                .formatted(artifactId, path);
+    }
+
+    @Test
+    void lazyDuplicatesInFragmentOrder() throws Exception {
+        Path repoDir = Files.createDirectory(tempDir.resolve("repo"));
+        Files.writeString(
+                repoDir.resolve("a.xml"),
+                "<metadata><artifacts>" + artifactXml("y", "/a/y.jar") + "</artifacts></metadata>");
+        Files.writeString(
+                repoDir.resolve("b.xml"),
+                "<metadata><artifacts>"
+                        + artifactXml("x", "/b/x.jar")
+                        + artifactXml("y", "/b/y.jar")
+                        + "</artifacts></metadata>");
+        MetadataRequest request = new MetadataRequest(List.of(repoDir.toString()));
+        request.setIgnoreDuplicates(false);
+        request.setLazy(true);
+        request.setCoordinateIndexPath(tempDir.resolve("cache").resolve("coords.idx"));
+        metadataResolver.resolveMetadata(request);
+
+        // Fragment providing gid:y that precedes already parsed fragment is parsed later
+        LazyMetadataResult result = (LazyMetadataResult) metadataResolver.resolveMetadata(request);
+        assertThat(result.getMetadataOrDefaultFor(Artifact.of("gid", "x", "1.0")).getPath())
+                .isEqualTo("/b/x.jar");
+        assertThat(result.getLoadedFragments()).containsExactly(repoDir.resolve("b.xml"));
+        assertThat(result.getMetadataOrDefaultFor(Artifact.of("gid", "y", "1.0")).getPath())
+                .isEqualTo("/b/y.jar");
+        assertThat(result.getLoadedFragments()).hasSize(2);
+
+        request.setLazy(false);
+        MetadataResult eager = metadataResolver.resolveMetadata(request);
+        assertThat(eager.getMetadataOrDefaultFor(Artifact.of("gid", "y", "1.0")).getPath())
+                .isEqualTo("/b/y.jar");
+        assertThat(result.getPackageMetadataMap().keySet())
+                .containsExactlyElementsOf(eager.getPackageMetadataMap().keySet());
+    }
+
+    @Test
+    void executorStrategies() throws Exception {
+        List<String> pathList = List.of("src/test/resources/metadata1.xml", "src/test/resources");
+        Artifact artifact = Artifact.of("gid", "aid", "ext", "cla", "1.2-beta3");
+
+        for (String strategy : List.of("pool", "virtual", "forkjoin", "single", "unknown")) {
+            MetadataRequest request = new MetadataRequest(pathList);
+            request.setExecutorStrategy(strategy);
+            request.setIgnoreDuplicates(false);
+            MetadataResult result = metadataResolver.resolveMetadata(request);
+
+            assertThat(result.getPackageMetadataMap()).hasSize(4);
+            assertThat(result.getMetadataFor(artifact)).isNotNull();
+        }
+    }
+
+    @Test
+    void compressedFragments() throws Exception {
+        Path plain = Path.of("src/test/resources/simple.xml");
+        Path compressed = tempDir.resolve("simple.xml");
+        try (OutputStream os = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+            Files.copy(plain, os);
+        }
+
+        assertThat(DefaultMetadataResolver.getFragmentSize(compressed, null, false))
+                .isEqualTo(Files.size(compressed));
+        assertThat(DefaultMetadataResolver.getFragmentSize(compressed, null, true))
+                .isEqualTo(Files.size(plain));
+        assertThat(DefaultMetadataResolver.getFragmentSize(plain, null, true))
+                .isEqualTo(Files.size(plain));
+        assertThat(
+                        DefaultMetadataResolver.getFragmentSize(
+                                tempDir.resolve("missing"), null, true))
+                .isZero();
+
+        // Known size is used without accessing the fragment
+        Path missing = tempDir.resolve("missing");
+        FragmentStamp stamp = new FragmentStamp(42, 0);
+        assertThat(DefaultMetadataResolver.getFragmentSize(missing, stamp, false)).isEqualTo(42);
+        assertThat(
+                        DefaultMetadataResolver.getFragmentSize(
+                                compressed, FragmentStamp.of(compressed), true))
+                .isEqualTo(Files.size(plain));
+
+        Path metadata1 = Path.of("src/test/resources/metadata1.xml");
+        MetadataRequest request =
+                new MetadataRequest(List.of(metadata1.toString(), tempDir.toString()));
+        request.setPrecomputeUncompressedSize(true);
+        MetadataResult result = metadataResolver.resolveMetadata(request);
+        Artifact artifact = Artifact.of("org.codehaus.plexus", "plexus-ant-factory", "1.0");
+        assertThat(result.getPackageMetadataMap().keySet()).containsExactly(metadata1, compressed);
+        assertThat(result.getMetadataFor(artifact)).isNotNull();
+    }
 }
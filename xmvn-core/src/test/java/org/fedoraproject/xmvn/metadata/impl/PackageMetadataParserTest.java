@@ -0,0 +1,88 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.metadata.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import javax.xml.stream.XMLStreamException;
+import org.fedoraproject.xmvn.metadata.PackageMetadata;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author Mikolaj Izdebski
+ */
+class PackageMetadataParserTest {
+    @TempDir private Path tempDir;
+
+    private static PackageMetadata parse(Path path, boolean skipExclusions) throws Exception {
+        try (InputStream is = Files.newInputStream(path)) {
+            return PackageMetadataParser.parse(is, skipExclusions);
+        }
+    }
+
+    @Test
+    void sameAsGenericParser() throws Exception {
+        List<String> names =
+                List.of(
+                        "metadata1.xml",
+                        "metadata1-ns.xml",
+                        "metadata1-non-compat.xml",
+                        "simple.xml");
+        for (String name : names) {
+            Path path = Path.of("src/test/resources").resolve(name);
+            assertThat(parse(path, false).toXML())
+                    .isEqualTo(PackageMetadata.readFromXML(path).toXML());
+        }
+    }
+
+    @Test
+    void skipExclusions() throws Exception {
+        Path path = Path.of("src/test/resources/metadata1.xml");
+        PackageMetadata metadata = parse(path, true);
+        assertThat(metadata.getArtifacts().get(0).getDependencies().get(0).getExclusions())
+                .isEmpty();
+        assertThat(metadata.getArtifacts().get(0).getDependencies().get(0).getGroupId())
+                .isEqualTo("d-gid");
+    }
+
+    @Test
+    void unknownElement() throws Exception {
+        Path path = tempDir.resolve("bad.xml");
+        Files.writeString(path, "<metadata><foo/></metadata>");
+        assertThatExceptionOfType(XMLStreamException.class).isThrownBy(() -> parse(path, false));
+    }
+
+    @Test
+    void missingMandatoryElement() throws Exception {
+        Path path = tempDir.resolve("bad.xml");
+        String xml = "<artifacts><artifact><groupId>g</groupId></artifact></artifacts>";
+        Files.writeString(path, "<metadata>" + xml + "</metadata>");
+        assertThatExceptionOfType(XMLStreamException.class).isThrownBy(() -> parse(path, false));
+    }
+
+    @Test
+    void duplicateElement() throws Exception {
+        Path path = tempDir.resolve("bad.xml");
+        Files.writeString(path, "<metadata><artifacts/><artifacts/></metadata>");
+        assertThatExceptionOfType(XMLStreamException.class).isThrownBy(() -> parse(path, false));
+    }
+}
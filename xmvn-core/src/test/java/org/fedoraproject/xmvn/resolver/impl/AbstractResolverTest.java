@@ -0,0 +1,79 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.resolver.impl;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import org.fedoraproject.xmvn.artifact.Artifact;
+import org.fedoraproject.xmvn.config.Configuration;
+import org.fedoraproject.xmvn.config.Configurator;
+import org.fedoraproject.xmvn.logging.Logger;
+import org.fedoraproject.xmvn.metadata.MetadataResolver;
+import org.fedoraproject.xmvn.test.AbstractTest;
+import org.fedoraproject.xmvn.test.FixedConfigurator;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Base class for tests of resolvers that read metadata from a test repository.
+ *
+ * @author Mikolaj Izdebski
+ */
+abstract class AbstractResolverTest extends AbstractTest {
+    @TempDir private Path cacheDir;
+
+    /**
+     * Create configuration of resolvers that read metadata from given repository.
+     *
+     * @param repoDir metadata repository
+     * @return configuration, which can be further adjusted before any resolution takes place
+     */
+    Configuration createConfiguration(Path repoDir) {
+        Configuration configuration = getService(Configurator.class).getConfiguration();
+        configuration.getResolverSettings().setMetadataRepositories(List.of(repoDir.toString()));
+        return configuration;
+    }
+
+    /**
+     * Create resolver with given configuration, which installs missing artifacts using given
+     * function instead of mock agent. Files cached by the resolver are stored in a temporary
+     * directory.
+     *
+     * @param configuration resolver configuration
+     * @param metadataResolver metadata resolver
+     * @param installer installs some of given artifacts and returns list of installed artifacts
+     * @return resolver
+     */
+    DefaultResolver createResolver(
+            Configuration configuration,
+            MetadataResolver metadataResolver,
+            UnaryOperator<List<Artifact>> installer) {
+        DefaultResolver resolver =
+                new DefaultResolver(
+                        getService(Logger.class),
+                        new FixedConfigurator(configuration),
+                        metadataResolver);
+        resolver.mockAgent =
+                new MockAgent(getService(Logger.class), null) {
+                    @Override
+                    public List<Artifact> tryInstallArtifacts(List<Artifact> artifacts) {
+                        return installer.apply(artifacts);
+                    }
+                };
+        resolver.cacheManager = new CacheManager(cacheDir);
+        return resolver;
+    }
+}
@@ -17,7 +17,10 @@ package org.fedoraproject.xmvn.resolver.impl;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
 import org.easymock.EasyMock;
 import org.fedoraproject.xmvn.artifact.Artifact;
 import org.fedoraproject.xmvn.config.Configuration;
@@ -102,7 +105,7 @@ class BasicResolverTest extends AbstractTest {
                 .andReturn(mockMdResolver);
         EasyMock.expect(mockMdResolver.resolveMetadata(EasyMock.anyObject(MetadataRequest.class)))
                 .andReturn(mockMdResult);
-        EasyMock.expect(mockMdResult.getMetadataFor(artifact)).andReturn(md);
+        EasyMock.expect(mockMdResult.getMetadataOrDefaultFor(artifact)).andReturn(md);
         EasyMock.replay(mockMdResult, mockMdResolver, mockServiceLocator);
 
         Resolver resolver = new DefaultResolver(mockServiceLocator);
@@ -131,7 +134,7 @@ class BasicResolverTest extends AbstractTest {
                 .andReturn(mockMdResolver);
         EasyMock.expect(mockMdResolver.resolveMetadata(EasyMock.anyObject(MetadataRequest.class)))
                 .andReturn(mockMdResult);
-        EasyMock.expect(mockMdResult.getMetadataFor(artifact)).andReturn(md);
+        EasyMock.expect(mockMdResult.getMetadataOrDefaultFor(artifact)).andReturn(md);
         EasyMock.replay(mockMdResult, mockMdResolver, mockServiceLocator);
 
         Resolver resolver = new DefaultResolver(mockServiceLocator);
@@ -158,6 +161,76 @@ class BasicResolverTest extends AbstractTest {
                 .areSimilar();
     }
 
+    @Test
+    void effectivePomIsMemoized() throws Exception {
+        Artifact artifact = Artifact.of("gid", "aid", "pom", "cla", "ver");
+        ArtifactMetadata md = new ArtifactMetadata();
+        md.setExtension("pom");
+
+        MetadataResult mockMdResult = EasyMock.createMock(MetadataResult.class);
+        MetadataResolver mockMdResolver = EasyMock.createMock(MetadataResolver.class);
+        ServiceLocator mockServiceLocator = EasyMock.createMock(ServiceLocator.class);
+        EasyMock.expect(mockServiceLocator.getService(Logger.class))
+                .andReturn(getService(Logger.class));
+        EasyMock.expect(mockServiceLocator.getService(Configurator.class))
+                .andReturn(getService(Configurator.class));
+        EasyMock.expect(mockServiceLocator.getService(MetadataResolver.class))
+                .andReturn(mockMdResolver);
+        EasyMock.expect(mockMdResolver.resolveMetadata(EasyMock.anyObject(MetadataRequest.class)))
+                .andReturn(mockMdResult);
+        EasyMock.expect(mockMdResult.getMetadataOrDefaultFor(artifact)).andReturn(md).times(3);
+        EasyMock.replay(mockMdResult, mockMdResolver, mockServiceLocator);
+
+        Resolver resolver = new DefaultResolver(mockServiceLocator);
+        ResolutionResult result1 = resolver.resolve(new ResolutionRequest(artifact));
+        Files.setLastModifiedTime(result1.getArtifactPath(), FileTime.fromMillis(0));
+        ResolutionResult result2 = resolver.resolve(new ResolutionRequest(artifact));
+
+        // Reused effective POM is recorded as used, so that it is not evicted
+        assertThat(result2.getArtifactPath()).isEqualTo(result1.getArtifactPath());
+        assertThat(Files.getLastModifiedTime(result2.getArtifactPath()))
+                .isNotEqualTo(FileTime.fromMillis(0));
+
+        // Effective POM evicted from cache is generated again
+        Files.delete(result2.getArtifactPath());
+        ResolutionResult result3 = resolver.resolve(new ResolutionRequest(artifact));
+
+        EasyMock.verify(mockMdResult, mockMdResolver, mockServiceLocator);
+
+        assertThat(result3.getArtifactPath()).isEqualTo(result1.getArtifactPath());
+        assertThat(result3.getArtifactPath()).exists();
+        assertThat(md.getPath()).isNull();
+    }
+
+    @Test
+    void effectivePomDisabledByArtifactProperty() throws Exception {
+        Artifact artifact = Artifact.of("gid", "aid", "pom", "cla", "ver");
+        ArtifactMetadata md = new ArtifactMetadata();
+        md.setExtension("pom");
+        md.setPath("/foo/bar.pom");
+        md.addProperty("xmvn.resolver.disableEffectivePom", "true");
+
+        MetadataResult mockMdResult = EasyMock.createMock(MetadataResult.class);
+        MetadataResolver mockMdResolver = EasyMock.createMock(MetadataResolver.class);
+        ServiceLocator mockServiceLocator = EasyMock.createMock(ServiceLocator.class);
+        EasyMock.expect(mockServiceLocator.getService(Logger.class))
+                .andReturn(getService(Logger.class));
+        EasyMock.expect(mockServiceLocator.getService(Configurator.class))
+                .andReturn(getService(Configurator.class));
+        EasyMock.expect(mockServiceLocator.getService(MetadataResolver.class))
+                .andReturn(mockMdResolver);
+        EasyMock.expect(mockMdResolver.resolveMetadata(EasyMock.anyObject(MetadataRequest.class)))
+                .andReturn(mockMdResult);
+        EasyMock.expect(mockMdResult.getMetadataOrDefaultFor(artifact)).andReturn(md);
+        EasyMock.replay(mockMdResult, mockMdResolver, mockServiceLocator);
+
+        Resolver resolver = new DefaultResolver(mockServiceLocator);
+        ResolutionResult result = resolver.resolve(new ResolutionRequest(artifact));
+        assertThat(result.getArtifactPath()).isEqualTo(Path.of("/foo/bar.pom"));
+
+        EasyMock.verify(mockMdResult, mockMdResolver, mockServiceLocator);
+    }
+
     @Test
     void resolvePomWithDep() throws Exception {
         Artifact artifact = Artifact.of("gid", "aid", "pom", "cla", "ver");
@@ -185,7 +258,7 @@ class BasicResolverTest extends AbstractTest {
                 .andReturn(mockMdResolver);
         EasyMock.expect(mockMdResolver.resolveMetadata(EasyMock.anyObject(MetadataRequest.class)))
                 .andReturn(mockMdResult);
-        EasyMock.expect(mockMdResult.getMetadataFor(artifact)).andReturn(md);
+        EasyMock.expect(mockMdResult.getMetadataOrDefaultFor(artifact)).andReturn(md);
         EasyMock.replay(mockMdResult, mockMdResolver, mockServiceLocator);
 
         Resolver resolver = new DefaultResolver(mockServiceLocator);
@@ -228,13 +301,12 @@ class BasicResolverTest extends AbstractTest {
     @Test
     void mockAgent() throws Exception {
         Artifact artifact = Artifact.of("gid", "aid", "ext", "cla", "ver");
-        Artifact versionlessArtifact =
-                Artifact.of("gid", "aid", "ext", "cla", Artifact.DEFAULT_VERSION);
         ArtifactMetadata md = new ArtifactMetadata();
         md.setPath("/foo/bar");
 
         MockAgent mockAgent = EasyMock.createMock(MockAgent.class);
-        EasyMock.expect(mockAgent.tryInstallArtifact(artifact)).andReturn(true);
+        EasyMock.expect(mockAgent.tryInstallArtifacts(List.of(artifact)))
+                .andReturn(List.of(artifact));
         MetadataResult mockMdResult1 = EasyMock.createMock(MetadataResult.class);
         MetadataResult mockMdResult2 = EasyMock.createMock(MetadataResult.class);
         MetadataResolver mockMdResolver = EasyMock.createMock(MetadataResolver.class);
@@ -247,12 +319,13 @@ class BasicResolverTest extends AbstractTest {
                 .andReturn(mockMdResolver);
         EasyMock.expect(mockMdResolver.resolveMetadata(EasyMock.anyObject(MetadataRequest.class)))
                 .andReturn(mockMdResult1);
-        EasyMock.expect(mockMdResolver.resolveMetadata(EasyMock.anyObject(MetadataRequest.class)))
+        EasyMock.expect(
+                        mockMdResolver.refreshMetadata(
+                                EasyMock.anyObject(MetadataRequest.class),
+                                EasyMock.same(mockMdResult1)))
                 .andReturn(mockMdResult2);
-        EasyMock.expect(mockMdResult1.getMetadataFor(artifact)).andReturn(null);
-        EasyMock.expect(mockMdResult1.getMetadataFor(versionlessArtifact)).andReturn(null);
-        EasyMock.expect(mockMdResult2.getMetadataFor(artifact)).andReturn(null);
-        EasyMock.expect(mockMdResult2.getMetadataFor(versionlessArtifact)).andReturn(md);
+        EasyMock.expect(mockMdResult1.getMetadataOrDefaultFor(artifact)).andReturn(null);
+        EasyMock.expect(mockMdResult2.getMetadataOrDefaultFor(artifact)).andReturn(md);
         EasyMock.replay(
                 mockAgent, mockMdResult1, mockMdResult2, mockMdResolver, mockServiceLocator);
 
@@ -266,4 +339,90 @@ class BasicResolverTest extends AbstractTest {
         EasyMock.verify(
                 mockAgent, mockMdResult1, mockMdResult2, mockMdResolver, mockServiceLocator);
     }
+
+    @Test
+    void negativeCache() throws Exception {
+        Artifact artifact = Artifact.of("gid", "aid", "ext", "cla", "ver");
+
+        MockAgent mockAgent = EasyMock.createMock(MockAgent.class);
+        EasyMock.expect(mockAgent.tryInstallArtifacts(List.of(artifact))).andReturn(List.of());
+        MetadataResult mockMdResult = EasyMock.createMock(MetadataResult.class);
+        MetadataResolver mockMdResolver = EasyMock.createMock(MetadataResolver.class);
+        ServiceLocator mockServiceLocator = EasyMock.createMock(ServiceLocator.class);
+        EasyMock.expect(mockServiceLocator.getService(Logger.class))
+                .andReturn(getService(Logger.class));
+        EasyMock.expect(mockServiceLocator.getService(Configurator.class))
+                .andReturn(getService(Configurator.class));
+        EasyMock.expect(mockServiceLocator.getService(MetadataResolver.class))
+                .andReturn(mockMdResolver);
+        EasyMock.expect(mockMdResolver.resolveMetadata(EasyMock.anyObject(MetadataRequest.class)))
+                .andReturn(mockMdResult);
+        EasyMock.expect(mockMdResult.getMetadataOrDefaultFor(artifact)).andReturn(null);
+        EasyMock.replay(mockAgent, mockMdResult, mockMdResolver, mockServiceLocator);
+
+        DefaultResolver resolver = new DefaultResolver(mockServiceLocator);
+        resolver.mockAgent = mockAgent;
+        for (int i = 0; i < 3; i++) {
+            ResolutionResult result = resolver.resolve(new ResolutionRequest(artifact));
+            assertThat(result.getArtifactPath()).isNull();
+        }
+
+        EasyMock.verify(mockAgent, mockMdResult, mockMdResolver, mockServiceLocator);
+        assertThat(resolver.negativeCache.getHits()).isEqualTo(2);
+        assertThat(resolver.negativeCache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void resolveAllRefreshesMetadataOnce() throws Exception {
+        Artifact artifact1 = Artifact.of("gid", "aid1", "ver");
+        Artifact artifact2 = Artifact.of("gid", "aid2", "ver");
+        ArtifactMetadata md1 = new ArtifactMetadata();
+        md1.setPath("/foo/bar");
+        md1.addCompatVersion("ver");
+        ArtifactMetadata md2 = new ArtifactMetadata();
+        md2.setPath("/foo/baz");
+
+        MockAgent mockAgent = EasyMock.createMock(MockAgent.class);
+        EasyMock.expect(mockAgent.tryInstallArtifacts(List.of(artifact1, artifact2)))
+                .andReturn(List.of(artifact1, artifact2));
+        MetadataResult mockMdResult1 = EasyMock.createMock(MetadataResult.class);
+        MetadataResult mockMdResult2 = EasyMock.createMock(MetadataResult.class);
+        MetadataResolver mockMdResolver = EasyMock.createMock(MetadataResolver.class);
+        ServiceLocator mockServiceLocator = EasyMock.createMock(ServiceLocator.class);
+        EasyMock.expect(mockServiceLocator.getService(Logger.class))
+                .andReturn(getService(Logger.class));
+        EasyMock.expect(mockServiceLocator.getService(Configurator.class))
+                .andReturn(getService(Configurator.class));
+        EasyMock.expect(mockServiceLocator.getService(MetadataResolver.class))
+                .andReturn(mockMdResolver);
+        EasyMock.expect(mockMdResolver.resolveMetadata(EasyMock.anyObject(MetadataRequest.class)))
+                .andReturn(mockMdResult1);
+        EasyMock.expect(
+                        mockMdResolver.refreshMetadata(
+                                EasyMock.anyObject(MetadataRequest.class),
+                                EasyMock.same(mockMdResult1)))
+                .andReturn(mockMdResult2);
+        EasyMock.expect(mockMdResult1.getMetadataOrDefaultFor(EasyMock.anyObject(Artifact.class)))
+                .andReturn(null)
+                .times(2);
+        EasyMock.expect(mockMdResult2.getMetadataOrDefaultFor(artifact1)).andReturn(md1);
+        EasyMock.expect(mockMdResult2.getMetadataOrDefaultFor(artifact2)).andReturn(md2);
+        EasyMock.replay(
+                mockAgent, mockMdResult1, mockMdResult2, mockMdResolver, mockServiceLocator);
+
+        DefaultResolver resolver = new DefaultResolver(mockServiceLocator);
+        resolver.mockAgent = mockAgent;
+        List<ResolutionResult> results =
+                resolver.resolveAll(
+                        List.of(
+                                new ResolutionRequest(artifact1),
+                                new ResolutionRequest(artifact2)));
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).getArtifactPath()).isEqualTo(Path.of("/foo/bar"));
+        assertThat(results.get(0).getCompatVersion()).isEqualTo("ver");
+        assertThat(results.get(1).getArtifactPath()).isEqualTo(Path.of("/foo/baz"));
+
+        EasyMock.verify(
+                mockAgent, mockMdResult1, mockMdResult2, mockMdResolver, mockServiceLocator);
+    }
 }
@@ -18,7 +18,13 @@ package org.fedoraproject.xmvn.resolver.impl;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * @author Mikolaj Izdebski
@@ -38,4 +44,99 @@ class CacheManagerTest {
         assertThat(mgr.hash("TEST4".getBytes(StandardCharsets.US_ASCII)))
                 .isEqualTo("033C0C34DCC7390311EF0D2CECF963B42A9C6E19D798117A66AF811FB0040A45");
     }
+
+    @Test
+    void cachedFileIsNotRewritten(@TempDir Path tempDir) throws Exception {
+        CacheManager mgr = new CacheManager(tempDir);
+        String content = "<project>" + getClass().getName() + "</project>";
+        Path path = mgr.cacheFile(content, "test.pom");
+        FileTime time = FileTime.fromMillis(System.currentTimeMillis() - 60000);
+        Files.setLastModifiedTime(path, time);
+
+        assertThat(mgr.cacheFile(content, "test.pom")).isEqualTo(path);
+        assertThat(Files.getLastModifiedTime(path)).isEqualTo(time);
+        assertThat(Files.readString(path)).isEqualTo(content);
+    }
+
+    private static void setLastUse(Path cacheFile, long daysAgo) throws Exception {
+        FileTime time =
+                FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(daysAgo));
+        Files.setLastModifiedTime(cacheFile, time);
+        Files.setLastModifiedTime(cacheFile.getParent(), time);
+    }
+
+    @Test
+    void reuseFile(@TempDir Path tempDir) throws Exception {
+        CacheManager mgr = new CacheManager(tempDir);
+        Path path = mgr.cacheFile("content", "test.pom");
+        setLastUse(path, 3);
+
+        assertThat(mgr.reuseFile(path)).isTrue();
+        assertThat(mgr.getStatistics().hits()).isEqualTo(1);
+        assertThat(System.currentTimeMillis() - Files.getLastModifiedTime(path).toMillis())
+                .isLessThan(TimeUnit.DAYS.toMillis(1));
+
+        Files.delete(path);
+        assertThat(mgr.reuseFile(path)).isFalse();
+        assertThat(mgr.getStatistics().hits()).isEqualTo(1);
+    }
+
+    @Test
+    void atomicStore(@TempDir Path tempDir) throws Exception {
+        CacheManager mgr = new CacheManager(tempDir);
+        Path path = mgr.cacheFile("content", "test.pom");
+
+        assertThat(path).hasContent("content");
+        assertThat(path.getParent().getParent().getParent()).isEqualTo(tempDir);
+        try (Stream<Path> stream = Files.list(path.getParent())) {
+            assertThat(stream.toList()).containsExactly(path);
+        }
+        assertThat(mgr.getStatistics()).isEqualTo(new CacheManager.Statistics(0, 1, 0, 0));
+
+        assertThat(mgr.cacheFile("content", "test.pom")).isEqualTo(path);
+        assertThat(mgr.getStatistics()).isEqualTo(new CacheManager.Statistics(1, 1, 0, 0));
+    }
+
+    @Test
+    void leastRecentlyUsedEviction(@TempDir Path tempDir) throws Exception {
+        CacheManager mgr = new CacheManager(tempDir);
+        Path oldest = mgr.cacheFile("1234567890", "a.pom");
+        Path older = mgr.cacheFile("abcdefghij", "b.pom");
+        Path old = mgr.cacheFile("ABCDEFGHIJ", "c.pom");
+        Path recent = mgr.cacheFile("0987654321", "d.pom");
+        setLastUse(oldest, 4);
+        setLastUse(older, 3);
+        setLastUse(old, 2);
+
+        mgr.setMaxSize(20);
+        mgr.evict();
+
+        assertThat(oldest).doesNotExist();
+        assertThat(oldest.getParent()).doesNotExist();
+        assertThat(older).doesNotExist();
+        assertThat(old).exists();
+        assertThat(recent).exists();
+        assertThat(mgr.getStatistics()).isEqualTo(new CacheManager.Statistics(0, 4, 2, 20));
+
+        // Recently used entries are kept even if cache exceeds its size limit
+        mgr.setMaxSize(1);
+        mgr.evict();
+        assertThat(old).doesNotExist();
+        assertThat(recent).exists();
+    }
+
+    @Test
+    void unboundedCache(@TempDir Path tempDir) throws Exception {
+        CacheManager mgr = new CacheManager(tempDir);
+        Path path = mgr.cacheFile("content", "test.pom");
+        setLastUse(path, 100);
+
+        // Cache is unbounded unless maximal size is configured
+        mgr.evict();
+        assertThat(path).exists();
+
+        mgr.setMaxSize(0);
+        mgr.evict();
+        assertThat(path).exists();
+    }
 }
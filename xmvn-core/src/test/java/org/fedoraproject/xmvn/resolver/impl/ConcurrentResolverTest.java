@@ -0,0 +1,136 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.resolver.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.fedoraproject.xmvn.artifact.Artifact;
+import org.fedoraproject.xmvn.metadata.MetadataRequest;
+import org.fedoraproject.xmvn.metadata.MetadataResolver;
+import org.fedoraproject.xmvn.metadata.MetadataResult;
+import org.fedoraproject.xmvn.resolver.ResolutionRequest;
+import org.fedoraproject.xmvn.resolver.ResolutionResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author Mikolaj Izdebski
+ */
+class ConcurrentResolverTest extends AbstractResolverTest {
+    private static final int THREADS = 8;
+
+    private static final int ITERATIONS = 200;
+
+    @TempDir private Path tempDir;
+
+    private final AtomicInteger metadataLoads = new AtomicInteger();
+
+    private final AtomicInteger metadataRefreshes = new AtomicInteger();
+
+    private MetadataResolver countingMetadataResolver() {
+        MetadataResolver delegate = getService(MetadataResolver.class);
+        return new MetadataResolver() {
+            @Override
+            public MetadataResult resolveMetadata(MetadataRequest request) {
+                metadataLoads.incrementAndGet();
+                return delegate.resolveMetadata(request);
+            }
+
+            @Override
+            public MetadataResult refreshMetadata(MetadataRequest request, MetadataResult result) {
+                metadataRefreshes.incrementAndGet();
+                return delegate.refreshMetadata(request, result);
+            }
+        };
+    }
+
+    /**
+     * Resolve artifacts from many threads at once, while some of them are installed on demand,
+     * which causes metadata to be refreshed concurrently with lookups.
+     */
+    @Test
+    void concurrentResolution() throws Exception {
+        Path repoDir = Files.createDirectory(tempDir.resolve("repo"));
+        Files.copy(Path.of("src/test/resources/metadata1.xml"), repoDir.resolve("a.xml"));
+
+        Artifact present = Artifact.of("gid", "aid", "ext", "cla", "1.2-beta3");
+        Artifact installable = Artifact.of("org.codehaus.plexus", "plexus-ant-factory", "1.0");
+        Artifact missing = Artifact.of("foo", "bar", "1.0");
+
+        DefaultResolver resolver =
+                createResolver(
+                        createConfiguration(repoDir),
+                        countingMetadataResolver(),
+                        artifacts -> {
+                            if (!artifacts.contains(installable)) {
+                                return List.of();
+                            }
+                            try {
+                                Files.copy(
+                                        Path.of("src/test/resources/simple.xml"),
+                                        repoDir.resolve("b.xml"));
+                            } catch (FileAlreadyExistsException e) {
+                                // Installed by another thread
+                            } catch (Exception e) {
+                                throw new RuntimeException(e);
+                            }
+                            return List.of(installable);
+                        });
+
+        Callable<Void> task =
+                () -> {
+                    for (int i = 0; i < ITERATIONS; i++) {
+                        List<ResolutionResult> results =
+                                resolver.resolveAll(
+                                        List.of(
+                                                new ResolutionRequest(present),
+                                                new ResolutionRequest(installable),
+                                                new ResolutionRequest(missing)));
+                        assertThat(results.get(0).getArtifactPath()).isNotNull();
+                        assertThat(results.get(1).getArtifactPath()).isNotNull();
+                        assertThat(results.get(2).getArtifactPath()).isNull();
+                    }
+                    return null;
+                };
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(task));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(metadataLoads.get()).isEqualTo(1);
+        assertThat(metadataRefreshes.get()).isBetween(1, THREADS);
+        assertThat(resolver.negativeCache.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,67 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.resolver.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import org.fedoraproject.xmvn.artifact.Artifact;
+import org.fedoraproject.xmvn.config.Configuration;
+import org.fedoraproject.xmvn.metadata.MetadataResolver;
+import org.fedoraproject.xmvn.resolver.ResolutionRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author Mikolaj Izdebski
+ */
+class MetadataIndexDirectoryTest extends AbstractResolverTest {
+    @TempDir private Path tempDir;
+
+    private List<Path> listFiles(Path dir) throws Exception {
+        try (Stream<Path> stream = Files.list(dir)) {
+            return stream.toList();
+        }
+    }
+
+    @Test
+    void indexIsSharedBetweenResolvers() throws Exception {
+        Path repoDir = Files.createDirectory(tempDir.resolve("repo"));
+        Path indexDir = tempDir.resolve("index");
+        Files.copy(Path.of("src/test/resources/metadata1.xml"), repoDir.resolve("a.xml"));
+        Configuration configuration = createConfiguration(repoDir);
+        configuration.getResolverSettings().setMetadataIndexDirectory(indexDir.toString());
+        Artifact artifact = Artifact.of("gid", "aid", "ext", "cla", "1.2-beta3");
+
+        DefaultResolver resolver =
+                createResolver(configuration, getService(MetadataResolver.class), a -> List.of());
+        assertThat(resolver.resolve(new ResolutionRequest(artifact)).getArtifactPath())
+                .isNotNull();
+        List<Path> indexFiles = listFiles(indexDir);
+        assertThat(indexFiles).hasSize(1);
+        assertThat(indexFiles.get(0).getFileName().toString()).endsWith(".idx");
+
+        // Another resolver, possibly in another process, uses the same index file
+        DefaultResolver resolver2 =
+                createResolver(configuration, getService(MetadataResolver.class), a -> List.of());
+        assertThat(resolver2.resolve(new ResolutionRequest(artifact)).getArtifactPath())
+                .isNotNull();
+        assertThat(listFiles(indexDir)).isEqualTo(indexFiles);
+    }
+}
@@ -31,6 +31,10 @@ import java.nio.channels.SocketChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import org.easymock.EasyMock;
@@ -48,6 +52,8 @@ class MockAgentTest {
 
     private volatile Throwable tt;
 
+    private volatile int connections;
+
     private Logger logger;
 
     private Thread listenerThread;
@@ -113,6 +119,46 @@ class MockAgentTest {
         assertThat(Files.isDirectory(socketPath)).isFalse();
     }
 
+    /**
+     * Start socket listener that answers install commands using given responses, serving at most
+     * {@code maxCommands} commands per connection.
+     */
+    private void startSocketListener(
+            Map<String, String> responses, int maxCommands, List<String> received)
+            throws Throwable {
+        CountDownLatch latch = new CountDownLatch(1);
+        listenerThread =
+                new Thread(
+                        () -> {
+                            try (ServerSocketChannel serverChannel =
+                                    ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+                                serverChannel.bind(socketAddress);
+                                latch.countDown();
+                                while (received.size() < responses.size()) {
+                                    try (SocketChannel channel = serverChannel.accept()) {
+                                        connections++;
+                                        for (int i = 0; i < maxCommands; i++) {
+                                            String request = recvRequest(channel);
+                                            if (request.isEmpty()) {
+                                                break;
+                                            }
+                                            received.add(request);
+                                            sendResponse(channel, responses.get(request));
+                                        }
+                                    }
+                                }
+                            } catch (Throwable t) {
+                                tt = t;
+                            }
+                        });
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+        latch.await(1000, TimeUnit.MILLISECONDS);
+        if (tt != null) {
+            throw tt;
+        }
+    }
+
     private void joinSocketListener() throws Throwable {
         listenerThread.join();
         if (tt != null) {
@@ -184,4 +230,40 @@ class MockAgentTest {
     void noResponse() throws Throwable {
         performTest("foo:bar", "install mvn(foo:bar)\n", "", false);
     }
+
+    private void performBatchTest(int maxCommands, int expectedConnections) throws Throwable {
+        Map<String, String> responses = new LinkedHashMap<>();
+        responses.put("install mvn(foo:bar)\n", "ok\n");
+        responses.put("install mvn(foo:baz:pom:)\n", "nok\n");
+        responses.put("install mvn(foo:qux:1.2.3)\n", "ok\n");
+        List<String> received = new CopyOnWriteArrayList<>();
+        startSocketListener(responses, maxCommands, received);
+
+        EasyMock.replay(logger);
+
+        MockAgent agent = new MockAgent(logger, socketPath.toString());
+        List<Artifact> installed =
+                agent.tryInstallArtifacts(
+                        List.of(
+                                Artifact.of("foo:bar"),
+                                Artifact.of("foo:baz:pom:"),
+                                Artifact.of("foo:qux:1.2.3")));
+        assertThat(installed).containsExactly(Artifact.of("foo:bar"), Artifact.of("foo:qux:1.2.3"));
+
+        EasyMock.verify(logger);
+
+        joinSocketListener();
+        assertThat(received).containsExactlyElementsOf(responses.keySet());
+        assertThat(connections).isEqualTo(expectedConnections);
+    }
+
+    @Test
+    void pipelined() throws Throwable {
+        performBatchTest(Integer.MAX_VALUE, 1);
+    }
+
+    @Test
+    void singleCommandPerConnection() throws Throwable {
+        performBatchTest(1, 3);
+    }
 }
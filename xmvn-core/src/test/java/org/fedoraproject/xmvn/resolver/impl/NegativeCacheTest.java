@@ -0,0 +1,61 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.resolver.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.fedoraproject.xmvn.artifact.Artifact;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Mikolaj Izdebski
+ */
+class NegativeCacheTest {
+    private final Artifact a = Artifact.of("gid", "a", "1");
+
+    private final Artifact b = Artifact.of("gid", "b", "1");
+
+    private final Artifact c = Artifact.of("gid", "c", "1");
+
+    @Test
+    void hitsAndMisses() {
+        NegativeCache cache = new NegativeCache(10);
+        assertThat(cache.contains(a)).isFalse();
+        cache.add(a);
+        assertThat(cache.contains(a)).isTrue();
+        assertThat(cache.contains(a.withVersion("2"))).isFalse();
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(2);
+
+        cache.clear();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.contains(a)).isFalse();
+    }
+
+    @Test
+    void leastRecentlyUsedArtifactIsEvicted() {
+        NegativeCache cache = new NegativeCache(2);
+        cache.add(a);
+        cache.add(b);
+        assertThat(cache.contains(a)).isTrue();
+        cache.add(c);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.contains(a)).isTrue();
+        assertThat(cache.contains(b)).isFalse();
+        assertThat(cache.contains(c)).isTrue();
+    }
+}
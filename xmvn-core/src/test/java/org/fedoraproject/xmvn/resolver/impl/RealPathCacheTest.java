@@ -0,0 +1,146 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.resolver.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.fedoraproject.xmvn.artifact.Artifact;
+import org.fedoraproject.xmvn.config.Configuration;
+import org.fedoraproject.xmvn.metadata.MetadataResolver;
+import org.fedoraproject.xmvn.resolver.ResolutionRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author Mikolaj Izdebski
+ */
+class RealPathCacheTest extends AbstractResolverTest {
+    @TempDir private Path tempDir;
+
+    private Path repoDir;
+
+    private Path link;
+
+    private Path jar1;
+
+    private Path jar2;
+
+    private final Artifact artifact = Artifact.of("gid", "aid", "1.0");
+
+    private final Artifact installable = Artifact.of("gid", "installable", "1.0");
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repoDir = Files.createDirectory(tempDir.resolve("repo"));
+        jar1 = Files.createFile(tempDir.resolve("aid-1.jar")).toRealPath();
+        jar2 = Files.createFile(tempDir.resolve("aid-2.jar")).toRealPath();
+        link = Files.createSymbolicLink(tempDir.resolve("aid.jar"), jar1);
+        Files.writeString(
+                repoDir.resolve("a.xml"),
+                """
+                <metadata>
+                  <artifacts>
+                    <artifact>
+                      <groupId>gid</groupId>
+                      <artifactId>aid</artifactId>
+                      <version>1.0</version>
+                      <path>%s</path>
+                    </artifact>
+                  </artifacts>
+                </metadata>
+                """
+                        .formatted(link));
+    }
+
+    private DefaultResolver createResolver(boolean precomputeRealPaths) {
+        return createResolver(precomputeRealPaths, false);
+    }
+
+    private DefaultResolver createResolver(boolean precomputeRealPaths, boolean lazyMetadata) {
+        Configuration configuration = createConfiguration(repoDir);
+        configuration.getResolverSettings().setPrecomputeRealPaths(precomputeRealPaths);
+        configuration.getResolverSettings().setLazyMetadata(lazyMetadata);
+        return createResolver(
+                configuration,
+                getService(MetadataResolver.class),
+                artifacts -> artifacts.contains(installable) ? List.of(installable) : List.of());
+    }
+
+    private Path resolve(DefaultResolver resolver, Artifact artifact) {
+        return resolver.resolve(new ResolutionRequest(artifact)).getArtifactPath();
+    }
+
+    private void retargetLink() throws Exception {
+        Files.delete(link);
+        Files.createSymbolicLink(link, jar2);
+    }
+
+    @Test
+    void realPathIsCachedUntilRefresh() throws Exception {
+        DefaultResolver resolver = createResolver(false);
+        assertThat(resolve(resolver, artifact)).isEqualTo(jar1);
+
+        retargetLink();
+        assertThat(resolve(resolver, artifact)).isEqualTo(jar1);
+
+        // Installing an artifact causes metadata refresh
+        assertThat(resolve(resolver, installable)).isNull();
+        assertThat(resolve(resolver, artifact)).isEqualTo(jar2);
+    }
+
+    @Test
+    void realPathsArePrecomputed() throws Exception {
+        DefaultResolver resolver = createResolver(true);
+        assertThat(resolve(resolver, Artifact.of("foo", "bar", "1.0"))).isNull();
+
+        retargetLink();
+        assertThat(resolve(resolver, artifact)).isEqualTo(jar1);
+    }
+
+    @Test
+    void realPathsAreComputedOnDemand() throws Exception {
+        DefaultResolver resolver = createResolver(false);
+        assertThat(resolve(resolver, Artifact.of("foo", "bar", "1.0"))).isNull();
+
+        retargetLink();
+        assertThat(resolve(resolver, artifact)).isEqualTo(jar2);
+    }
+
+    @Test
+    void realPathsAreNotPrecomputedForLazyMetadata() throws Exception {
+        DefaultResolver resolver = createResolver(true, true);
+        assertThat(resolve(resolver, Artifact.of("foo", "bar", "1.0"))).isNull();
+
+        retargetLink();
+        assertThat(resolve(resolver, artifact)).isEqualTo(jar2);
+    }
+
+    @Test
+    void preloadCachesRealPaths() throws Exception {
+        DefaultResolver resolver = createResolver(false);
+        resolver.preload(
+                List.of(new ResolutionRequest(artifact), new ResolutionRequest(installable)));
+
+        // Preloading never installs artifacts, which would cause metadata refresh
+        retargetLink();
+        assertThat(resolve(resolver, artifact)).isEqualTo(jar1);
+        assertThat(resolver.negativeCache.size()).isZero();
+    }
+}
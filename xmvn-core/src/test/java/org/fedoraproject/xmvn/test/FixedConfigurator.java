@@ -0,0 +1,42 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.test;
+
+import org.fedoraproject.xmvn.config.Configuration;
+import org.fedoraproject.xmvn.config.Configurator;
+
+/**
+ * Configurator that always returns the same configuration object, so that tests can adjust it.
+ *
+ * @author Mikolaj Izdebski
+ */
+public class FixedConfigurator implements Configurator {
+    private final Configuration configuration;
+
+    public FixedConfigurator(Configuration configuration) {
+        this.configuration = configuration;
+    }
+
+    @Override
+    public Configuration getDefaultConfiguration() {
+        return configuration;
+    }
+
+    @Override
+    public Configuration getConfiguration() {
+        return configuration;
+    }
+}
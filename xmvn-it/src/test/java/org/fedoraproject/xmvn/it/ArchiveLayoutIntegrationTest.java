@@ -202,7 +202,6 @@ class ArchiveLayoutIntegrationTest extends AbstractIntegrationTest {
         expect(1, 1, "lib/installer/picocli-.*\\.jar");
         expect(1, 1, "lib/installer/slf4j-api-.*\\.jar");
         expect(1, 1, "lib/installer/slf4j-simple-.*\\.jar");
-        expect(1, 1, "lib/installer/asm-.*\\.jar");
         expect(1, 1, "lib/installer/commons-compress-.*\\.jar");
         expect(1, 1, "lib/installer/commons-io-.*\\.jar");
         expect(1, 1, "lib/installer/commons-lang3-.*\\.jar");
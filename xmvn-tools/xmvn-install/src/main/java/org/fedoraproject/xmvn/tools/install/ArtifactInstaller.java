@@ -24,6 +24,21 @@ import org.fedoraproject.xmvn.metadata.ArtifactMetadata;
 public interface ArtifactInstaller {
     String DEFAULT_REPOSITORY_ID = "install";
 
+    /**
+     * Prepare artifact file for installation, for example by analyzing or modifying its contents.
+     *
+     * <p>This method is called for every artifact before {@link #install} is called for any
+     * artifact. It may be called concurrently for different artifacts (but never for two artifacts
+     * sharing the same file), so it must not modify any state shared between artifacts, such as
+     * target packages.
+     *
+     * <p>Default implementation does nothing.
+     *
+     * @param am metadata of artifact to prepare
+     * @throws ArtifactInstallationException
+     */
+    default void prepare(ArtifactMetadata am) throws ArtifactInstallationException {}
+
     void install(
             JavaPackage targetPackage,
             ArtifactMetadata am,
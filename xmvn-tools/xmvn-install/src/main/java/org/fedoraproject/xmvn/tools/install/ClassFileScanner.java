@@ -0,0 +1,197 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.tools.install;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Lightweight scanner of Java class files, which looks for native methods.
+ *
+ * <p>Only the constant pool and the member tables are walked, reading access flags of fields and
+ * methods and skipping everything else, including method code. Constant pool strings are decoded
+ * only for the native method that is found, if any.
+ *
+ * @author Mikolaj Izdebski
+ */
+final class ClassFileScanner {
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int ACC_NATIVE = 0x0100;
+
+    private static final int CONSTANT_UTF8 = 1;
+
+    private static final int CONSTANT_INTEGER = 3;
+
+    private static final int CONSTANT_FLOAT = 4;
+
+    private static final int CONSTANT_LONG = 5;
+
+    private static final int CONSTANT_DOUBLE = 6;
+
+    private static final int CONSTANT_CLASS = 7;
+
+    private static final int CONSTANT_STRING = 8;
+
+    private static final int CONSTANT_FIELDREF = 9;
+
+    private static final int CONSTANT_METHODREF = 10;
+
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+
+    private static final int CONSTANT_METHOD_TYPE = 16;
+
+    private static final int CONSTANT_DYNAMIC = 17;
+
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+
+    private static final int CONSTANT_MODULE = 19;
+
+    private static final int CONSTANT_PACKAGE = 20;
+
+    private ClassFileScanner() {
+        // Avoid generating default public constructor
+    }
+
+    /**
+     * Find the first native method declared in given class file.
+     *
+     * @param entryName name of JAR entry the class file was read from
+     * @param classBytes contents of class file
+     * @return native method found, or {@code null} if the class declares no native methods
+     * @throws IllegalArgumentException if given bytes are not a well-formed class file
+     */
+    public static JarAnalysis.NativeMethod findNativeMethod(String entryName, byte[] classBytes) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(classBytes);
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Bad class file magic");
+            }
+            skip(buffer, 4); // minor_version, major_version
+
+            int constantPoolCount = u2(buffer);
+            int[] offsets = new int[constantPoolCount];
+            for (int i = 1; i < constantPoolCount; i++) {
+                offsets[i] = buffer.position();
+                int tag = buffer.get();
+                switch (tag) {
+                    case CONSTANT_UTF8 -> skip(buffer, u2(buffer));
+                    case CONSTANT_CLASS,
+                            CONSTANT_STRING,
+                            CONSTANT_METHOD_TYPE,
+                            CONSTANT_MODULE,
+                            CONSTANT_PACKAGE ->
+                            skip(buffer, 2);
+                    case CONSTANT_METHOD_HANDLE -> skip(buffer, 3);
+                    case CONSTANT_INTEGER,
+                            CONSTANT_FLOAT,
+                            CONSTANT_FIELDREF,
+                            CONSTANT_METHODREF,
+                            CONSTANT_INTERFACE_METHODREF,
+                            CONSTANT_NAME_AND_TYPE,
+                            CONSTANT_DYNAMIC,
+                            CONSTANT_INVOKE_DYNAMIC ->
+                            skip(buffer, 4);
+                    case CONSTANT_LONG, CONSTANT_DOUBLE -> {
+                        // Eight-byte constants take up two constant pool entries
+                        skip(buffer, 8);
+                        i++;
+                    }
+                    default ->
+                            throw new IllegalArgumentException(
+                                    "Unknown constant pool tag " + tag);
+                }
+            }
+
+            skip(buffer, 2); // access_flags
+            int thisClass = u2(buffer);
+            skip(buffer, 2); // super_class
+            skip(buffer, 2 * u2(buffer)); // interfaces
+
+            skipMembers(buffer); // fields
+
+            int methodsCount = u2(buffer);
+            for (int i = 0; i < methodsCount; i++) {
+                int accessFlags = u2(buffer);
+                int nameIndex = u2(buffer);
+                int descriptorIndex = u2(buffer);
+                if ((accessFlags & ACC_NATIVE) != 0) {
+                    int classNameIndex = u2(classBytes, offsets[thisClass] + 1);
+                    return new JarAnalysis.NativeMethod(
+                            entryName,
+                            utf8(classBytes, offsets, classNameIndex).replace('/', '.'),
+                            utf8(classBytes, offsets, nameIndex),
+                            utf8(classBytes, offsets, descriptorIndex));
+                }
+                skipAttributes(buffer);
+            }
+
+            return null;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed class file " + entryName, e);
+        }
+    }
+
+    private static void skipMembers(ByteBuffer buffer) {
+        int count = u2(buffer);
+        for (int i = 0; i < count; i++) {
+            skip(buffer, 6); // access_flags, name_index, descriptor_index
+            skipAttributes(buffer);
+        }
+    }
+
+    private static void skipAttributes(ByteBuffer buffer) {
+        int count = u2(buffer);
+        for (int i = 0; i < count; i++) {
+            skip(buffer, 2); // attribute_name_index
+            skip(buffer, buffer.getInt());
+        }
+    }
+
+    private static int u2(ByteBuffer buffer) {
+        return Short.toUnsignedInt(buffer.getShort());
+    }
+
+    private static int u2(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) << 8 | bytes[offset + 1] & 0xFF;
+    }
+
+    private static void skip(ByteBuffer buffer, int length) {
+        buffer.position(buffer.position() + length);
+    }
+
+    private static String utf8(byte[] bytes, int[] offsets, int index) {
+        int offset = offsets[index];
+        if (bytes[offset] != CONSTANT_UTF8) {
+            throw new IllegalArgumentException("Constant pool entry " + index + " is not UTF-8");
+        }
+        // Class files use modified UTF-8, same as DataInput
+        try (DataInputStream in =
+                new DataInputStream(
+                        new ByteArrayInputStream(bytes, offset + 1, bytes.length - offset - 1))) {
+            return in.readUTF();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
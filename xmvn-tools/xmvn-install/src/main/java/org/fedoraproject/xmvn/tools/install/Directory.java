@@ -16,6 +16,7 @@
 package org.fedoraproject.xmvn.tools.install;
 
 import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
@@ -51,7 +52,14 @@ public class Directory extends File {
     @Override
     protected void installContents(Path targetAbsolutePath) throws IOException {
         if (!Files.isDirectory(targetAbsolutePath, LinkOption.NOFOLLOW_LINKS)) {
-            Files.createDirectory(targetAbsolutePath);
+            try {
+                Files.createDirectory(targetAbsolutePath);
+            } catch (FileAlreadyExistsException e) {
+                // Files may be installed concurrently, so the directory may have been just created
+                if (!Files.isDirectory(targetAbsolutePath, LinkOption.NOFOLLOW_LINKS)) {
+                    throw e;
+                }
+            }
         }
     }
 
@@ -16,6 +16,7 @@
 package org.fedoraproject.xmvn.tools.install;
 
 import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
@@ -111,7 +112,7 @@ public abstract class File {
     }
 
     /**
-     * Install file into specified root directory.
+     * Install file into specified root directory. Different files can be installed concurrently.
      *
      * @param installRoot
      * @throws IOException
@@ -127,7 +128,14 @@ public abstract class File {
                                 + " already exists and is not a directory.");
             }
         } else {
-            Files.createDirectory(installRoot);
+            try {
+                Files.createDirectory(installRoot);
+            } catch (FileAlreadyExistsException e) {
+                // Installation root may have been just created by another file installation
+                if (!Files.isDirectory(installRoot)) {
+                    throw e;
+                }
+            }
         }
 
         Path targetAbsolutePath = installRoot.resolve(targetPath);
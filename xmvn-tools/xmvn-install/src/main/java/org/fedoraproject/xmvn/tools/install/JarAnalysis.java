@@ -0,0 +1,51 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.tools.install;
+
+import java.util.jar.Manifest;
+
+/**
+ * Facts about JAR (or WAR, EAR, ...) file gathered by {@link JarUtils#analyze} in a single pass
+ * over its entries.
+ *
+ * @param nativeMethod first native method declared by any class file, or {@code null} if there is
+ *     none
+ * @param containsNativeCode whether any entry is a native (ELF) binary
+ * @param manifest JAR manifest, or {@code null} if the file has no manifest
+ * @author Mikolaj Izdebski
+ */
+public record JarAnalysis(
+        NativeMethod nativeMethod, boolean containsNativeCode, Manifest manifest) {
+    /**
+     * Native method declared in a class file.
+     *
+     * @param entryName name of JAR entry containing the class file
+     * @param className binary name of the class declaring the method
+     * @param methodName method name
+     * @param methodDescriptor method descriptor
+     */
+    public record NativeMethod(
+            String entryName, String className, String methodName, String methodDescriptor) {}
+
+    /**
+     * Whether any class file declares native methods.
+     *
+     * @return {@code true} iff native method was found
+     */
+    public boolean usesNativeCode() {
+        return nativeMethod != null;
+    }
+}
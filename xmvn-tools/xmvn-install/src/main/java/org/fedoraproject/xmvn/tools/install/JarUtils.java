@@ -15,23 +15,25 @@
  */
 package org.fedoraproject.xmvn.tools.install;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.Serial;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
 import java.util.jar.Attributes;
 import java.util.jar.Manifest;
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.fedoraproject.xmvn.artifact.Artifact;
-import org.objectweb.asm.ClassReader;
-import org.objectweb.asm.ClassVisitor;
-import org.objectweb.asm.MethodVisitor;
-import org.objectweb.asm.Opcodes;
+import org.fedoraproject.xmvn.tools.install.JarAnalysis.NativeMethod;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,6 +54,12 @@ public final class JarUtils {
 
     private static final int ELFMAG3 = 'F';
 
+    /** Maximal number of class files that are read before they are scanned concurrently. */
+    private static final int CLASS_BATCH_COUNT = 256;
+
+    /** Maximal total size of class files that are read before they are scanned concurrently. */
+    private static final long CLASS_BATCH_SIZE = 16 * 1024 * 1024;
+
     private JarUtils() {
         // Avoid generating default public constructor
     }
@@ -66,49 +74,7 @@ public final class JarUtils {
      * @return {@code true} if native code was found inside given JAR
      */
     public static boolean containsNativeCode(Path jarPath) {
-        try (ZipFile jar = ZipFile.builder().setPath(jarPath).get()) {
-            Iterator<ZipArchiveEntry> entries = jar.getEntries().asIterator();
-            while (entries.hasNext()) {
-                ZipArchiveEntry entry = entries.next();
-                if (entry.isDirectory()) {
-                    continue;
-                }
-                try (InputStream jis = jar.getInputStream(entry)) {
-                    if (jis.read() == ELFMAG0
-                            && jis.read() == ELFMAG1
-                            && jis.read() == ELFMAG2
-                            && jis.read() == ELFMAG3) {
-                        LOGGER.debug("Native code found inside {}: {}", jarPath, entry.getName());
-                        return true;
-                    }
-                }
-            }
-
-            LOGGER.trace("Native code not found inside {}", jarPath);
-            return false;
-        } catch (IOException e) {
-            LOGGER.debug(
-                    "I/O exception caught when trying to determine whether JAR contains native code: {}",
-                    jarPath,
-                    e);
-            return false;
-        }
-    }
-
-    static class NativeMethodFound extends RuntimeException {
-        @Serial private static final long serialVersionUID = 1;
-
-        final String className;
-
-        final String methodName;
-
-        final String methodSignature;
-
-        NativeMethodFound(String className, String methodName, String methodSignature) {
-            this.className = className;
-            this.methodName = methodName;
-            this.methodSignature = methodSignature;
-        }
+        return analyze(jarPath).containsNativeCode();
     }
 
     /**
@@ -121,55 +87,122 @@ public final class JarUtils {
      * @return {@code true} given JAR as found inside to use native code
      */
     public static boolean usesNativeCode(Path jarPath) {
+        return analyze(jarPath).usesNativeCode();
+    }
+
+    private static boolean isElf(byte[] header) {
+        return header.length >= 4
+                && header[0] == ELFMAG0
+                && header[1] == ELFMAG1
+                && header[2] == ELFMAG2
+                && header[3] == ELFMAG3;
+    }
+
+    private record ClassFile(String entryName, byte[] bytes) {}
+
+    /**
+     * Scan given class files concurrently.
+     *
+     * @return first native method found, in order of given class files, or {@code null}
+     */
+    private static NativeMethod scanClasses(Path jarPath, List<ClassFile> classFiles) {
+        return classFiles.parallelStream()
+                .map(
+                        classFile -> {
+                            try {
+                                return ClassFileScanner.findNativeMethod(
+                                        classFile.entryName(), classFile.bytes());
+                            } catch (IllegalArgumentException e) {
+                                LOGGER.debug("Skipping unparseable class in {}", jarPath, e);
+                                return null;
+                            }
+                        })
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Analyze given JAR (or WAR, EAR, ...) file. The file is opened only once and all facts are
+     * gathered in a single walk over its central directory, with every entry read at most once.
+     * Once both kinds of native code are found, only the manifest is read.
+     *
+     * <p>Class files are read in bounded batches, which are then scanned for native methods
+     * concurrently. Class files that can't be parsed are skipped.
+     *
+     * <p>Files that are not valid JARs are reported as containing no native code and no manifest.
+     *
+     * @param jarPath path to JAR file
+     * @return analysis result, never {@code null}
+     * @see #containsNativeCode(Path)
+     * @see #usesNativeCode(Path)
+     */
+    public static JarAnalysis analyze(Path jarPath) {
+        boolean containsNativeCode = false;
+        NativeMethod nativeMethod = null;
+        Manifest manifest = null;
+        List<ClassFile> classBatch = new ArrayList<>();
+        long classBatchSize = 0;
+
         try (ZipFile jar = ZipFile.builder().setPath(jarPath).get()) {
             Iterator<ZipArchiveEntry> entries = jar.getEntries().asIterator();
             while (entries.hasNext()) {
                 ZipArchiveEntry entry = entries.next();
-                final String entryName = entry.getName();
-                if (entry.isDirectory() || !entryName.endsWith(".class")) {
+                String entryName = entry.getName();
+                if (entry.isDirectory()) {
                     continue;
                 }
 
-                try (InputStream jis = jar.getInputStream(entry)) {
-                    new ClassReader(jis)
-                            .accept(
-                                    new ClassVisitor(Opcodes.ASM4) {
-                                        @Override
-                                        public MethodVisitor visitMethod(
-                                                int flags,
-                                                String name,
-                                                String desc,
-                                                String sig,
-                                                String[] exc) {
-                                            if ((flags & Opcodes.ACC_NATIVE) != 0) {
-                                                throw new NativeMethodFound(entryName, name, sig);
-                                            }
-
-                                            return super.visitMethod(flags, name, desc, sig, exc);
-                                        }
-                                    },
-                                    ClassReader.SKIP_CODE);
+                boolean isManifest = manifest == null && entryName.equals(MANIFEST_PATH);
+                boolean isClass = nativeMethod == null && entryName.endsWith(".class");
+                if (containsNativeCode && !isManifest && !isClass) {
+                    continue;
+                }
+
+                byte[] bytes;
+                try (InputStream is = jar.getInputStream(entry)) {
+                    bytes = isManifest || isClass ? is.readAllBytes() : is.readNBytes(4);
+                }
+
+                if (!containsNativeCode && isElf(bytes)) {
+                    LOGGER.debug("Native code found inside {}: {}", jarPath, entryName);
+                    containsNativeCode = true;
+                }
+
+                if (isManifest) {
+                    manifest = new Manifest(new ByteArrayInputStream(bytes));
+                } else if (isClass) {
+                    classBatch.add(new ClassFile(entryName, bytes));
+                    classBatchSize += bytes.length;
+                    if (classBatch.size() >= CLASS_BATCH_COUNT
+                            || classBatchSize >= CLASS_BATCH_SIZE) {
+                        nativeMethod = scanClasses(jarPath, classBatch);
+                        classBatch.clear();
+                        classBatchSize = 0;
+                    }
                 }
             }
 
-            return false;
-        } catch (NativeMethodFound e) {
-            LOGGER.debug(
-                    "Native method {}({}) found in {}: {}",
-                    e.methodName,
-                    e.methodSignature,
-                    jarPath,
-                    e.className);
-            return true;
-        } catch (IOException e) {
-            LOGGER.debug(
-                    "I/O exception caught when trying to determine whether JAR uses native code: {}",
-                    jarPath,
-                    e);
-            return false;
-        } catch (RuntimeException e) {
-            return false;
+            if (nativeMethod == null) {
+                nativeMethod = scanClasses(jarPath, classBatch);
+            }
+
+            if (nativeMethod != null) {
+                LOGGER.debug(
+                        "Native method {}{} found in {}: {}",
+                        nativeMethod.methodName(),
+                        nativeMethod.methodDescriptor(),
+                        jarPath,
+                        nativeMethod.className());
+            }
+            if (!containsNativeCode) {
+                LOGGER.trace("Native code not found inside {}", jarPath);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debug("Exception caught when trying to analyze JAR: {}", jarPath, e);
         }
+
+        return new JarAnalysis(nativeMethod, containsNativeCode, manifest);
     }
 
     private static void putAttribute(
@@ -216,6 +249,55 @@ public final class JarUtils {
             LOGGER.debug("I/O exception caught when trying to read JAR: {}", targetJar);
             return;
         }
+        rewriteManifest(targetJar, artifact);
+    }
+
+    /**
+     * Inject artifact coordinates into manifest of specified JAR (or WAR, EAR, ...) file, which
+     * was already analyzed.
+     *
+     * <p>Unlike {@link #injectManifest(Path, Artifact)}, the file is not modified in-place. Instead
+     * new archive is written to a temporary file in the same directory, which then atomically
+     * replaces the original file, so that no backup copy is needed. If the manifest already
+     * contains the right coordinates then the file is not rewritten at all.
+     *
+     * @param targetJar
+     * @param artifact
+     * @param analysis result of {@link #analyze} on the target JAR
+     */
+    public static void injectManifest(Path targetJar, Artifact artifact, JarAnalysis analysis) {
+        LOGGER.trace("Trying to inject manifest to {}", artifact);
+        if (analysis.manifest() == null) {
+            LOGGER.trace("Manifest injection skipped: no pre-existing manifest found to update");
+            return;
+        }
+
+        Manifest mf = new Manifest(analysis.manifest());
+        updateManifest(artifact, mf);
+        if (mf.equals(analysis.manifest())) {
+            LOGGER.trace("Manifest injection skipped: manifest already contains coordinates");
+            return;
+        }
+
+        replaceManifest(targetJar, mf);
+    }
+
+    private static void writeJar(ZipFile jar, ZipArchiveOutputStream os, Manifest mf)
+            throws IOException {
+        ZipArchiveEntry jarEntry = jar.getEntry(MANIFEST_PATH);
+        // write manifest
+        ZipArchiveEntry newManifestEntry = new ZipArchiveEntry(MANIFEST_PATH);
+        if (jarEntry != null) {
+            newManifestEntry.setTime(jarEntry.getTime());
+        }
+        os.putArchiveEntry(newManifestEntry);
+        mf.write(os);
+        os.closeArchiveEntry();
+        // copy the rest of content
+        jar.copyRawEntries(os, entry -> !entry.equals(jar.getEntry(MANIFEST_PATH)));
+    }
+
+    private static void rewriteManifest(Path targetJar, Artifact artifact) {
         Path backupPath = getBackupNameOf(targetJar);
 
         try {
@@ -229,21 +311,11 @@ public final class JarUtils {
 
         try (ZipFile jar = ZipFile.builder().setPath(backupPath).get();
                 ZipArchiveOutputStream os = new ZipArchiveOutputStream(targetJar.toFile())) {
-            ZipArchiveEntry jarEntry = jar.getEntry(MANIFEST_PATH);
-            try (InputStream mfIs = jar.getInputStream(jarEntry)) {
+            try (InputStream mfIs = jar.getInputStream(jar.getEntry(MANIFEST_PATH))) {
                 Manifest mf = new Manifest(mfIs);
                 updateManifest(artifact, mf);
-                // write manifest
-                ZipArchiveEntry newManifestEntry = new ZipArchiveEntry(MANIFEST_PATH);
-                if (jarEntry != null) {
-                    newManifestEntry.setTime(jarEntry.getTime());
-                }
-                os.putArchiveEntry(newManifestEntry);
-                mf.write(os);
-                os.closeArchiveEntry();
+                writeJar(jar, os, mf);
             }
-            // copy the rest of content
-            jar.copyRawEntries(os, entry -> !entry.equals(jar.getEntry(MANIFEST_PATH)));
         } catch (Exception e) {
             // Re-throw exceptions that occur when processing JAR file after reading header and
             // manifest.
@@ -259,4 +331,41 @@ public final class JarUtils {
         }
         LOGGER.trace("Deleted backup file {}", backupPath);
     }
+
+    private static void replaceManifest(Path targetJar, Manifest mf) {
+        Path tempPath = null;
+        try {
+            // Replace symlink target, not the symlink itself
+            Path jarPath = targetJar.toRealPath();
+            tempPath =
+                    Files.createTempFile(jarPath.getParent(), "." + jarPath.getFileName(), ".tmp");
+
+            try (ZipFile jar = ZipFile.builder().setPath(jarPath).get();
+                    ZipArchiveOutputStream os = new ZipArchiveOutputStream(tempPath.toFile())) {
+                writeJar(jar, os, mf);
+            }
+
+            PosixFileAttributeView view =
+                    Files.getFileAttributeView(jarPath, PosixFileAttributeView.class);
+            if (view != null) {
+                Files.setPosixFilePermissions(tempPath, view.readAttributes().permissions());
+            }
+
+            try {
+                Files.move(tempPath, jarPath, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, jarPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (tempPath != null) {
+                try {
+                    Files.deleteIfExists(tempPath);
+                } catch (IOException e1) {
+                    e.addSuppressed(e1);
+                }
+            }
+            throw new RuntimeException("Failed to inject manifest into " + targetJar, e);
+        }
+        LOGGER.trace("Manifest injected successfully");
+    }
 }
@@ -16,9 +16,21 @@
 package org.fedoraproject.xmvn.tools.install;
 
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * A regular file created installed in target package.
@@ -26,9 +38,47 @@ import java.util.function.Supplier;
  * <p>The file can be installed either by coping an existing file (source file), or by writing
  * provided contents.
  *
+ * <p>Source file is installed using the cheapest {@link InstallationStrategy} that works. By
+ * default the source file is copied. If system property {@code xmvn.install.hardLink} is set to
+ * {@code true} and the source file already has the right access mode then target file is created
+ * as a hard link to it instead, unless the link can't be created (for example because the files
+ * are on different filesystems).
+ *
+ * <p>Hard link shares the inode with the source file, which is usually a build artifact. Any later
+ * change to the source file, such as a rebuild writing to it in place or a change of its access
+ * mode or ownership, also changes the installed file, and vice versa. Hard links should therefore
+ * be enabled only if source files are not modified after installation.
+ *
  * @author Mikolaj Izdebski
  */
 public class RegularFile extends File {
+    /** Strategy used to install regular file. */
+    public enum InstallationStrategy {
+        /**
+         * Target file was created as a hard link to the source file. Used only if enabled with
+         * system property {@code xmvn.install.hardLink}.
+         */
+        HARD_LINK,
+
+        /**
+         * Source file was copied using {@link FileChannel#transferTo}, which lets the kernel copy
+         * the data without passing it through user space. Depending on JVM and filesystem, the
+         * copy may be a copy-on-write clone.
+         */
+        TRANSFER,
+
+        /** Source file was copied with {@link Files#copy}. */
+        COPY,
+
+        /** Target file was written with provided contents. */
+        WRITE
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RegularFile.class);
+
+    /** System property enabling installation of source files as hard links. */
+    private static final String HARD_LINK_PROPERTY = "xmvn.install.hardLink";
+
     /**
      * Path to source file which contents will be copied to create target file. Can be {@code null},
      * in which case byte contents are used instead.
@@ -41,6 +91,9 @@ public class RegularFile extends File {
      */
     private final Supplier<byte[]> content;
 
+    /** Strategy that was used to install the file, or {@code null} if it was not installed yet. */
+    private volatile InstallationStrategy installationStrategy;
+
     /**
      * Create a regular file object, which contents will be populated from a source file. Target
      * file will have default access mode (0644).
@@ -119,12 +172,104 @@ public class RegularFile extends File {
         this.content = content;
     }
 
+    /**
+     * Get strategy that was used to install the file.
+     *
+     * @return installation strategy, or {@code null} if the file was not installed yet
+     */
+    public InstallationStrategy getInstallationStrategy() {
+        return installationStrategy;
+    }
+
+    private static Set<PosixFilePermission> toPermissions(int accessMode) {
+        Set<PosixFilePermission> permissions = EnumSet.noneOf(PosixFilePermission.class);
+        for (PosixFilePermission permission : PosixFilePermission.values()) {
+            // Permissions are declared in the same order as bits of Unix access mode
+            if ((accessMode & (0400 >> permission.ordinal())) != 0) {
+                permissions.add(permission);
+            }
+        }
+        return permissions;
+    }
+
+    private static Set<PosixFilePermission> getPermissions(Path path) throws IOException {
+        PosixFileAttributeView view =
+                Files.getFileAttributeView(path, PosixFileAttributeView.class);
+        return view != null ? view.readAttributes().permissions() : null;
+    }
+
+    private boolean link(Path targetPath, Set<PosixFilePermission> sourcePermissions)
+            throws IOException {
+        if (!Boolean.getBoolean(HARD_LINK_PROPERTY)) {
+            return false;
+        }
+
+        // Hard link shares access mode with the source file, so it can be used only if it already
+        // has the right mode
+        if (getAccessMode() < 0 || !toPermissions(getAccessMode()).equals(sourcePermissions)) {
+            return false;
+        }
+
+        try {
+            Files.createLink(targetPath, sourcePath.toRealPath());
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            throw e;
+        } catch (IOException | UnsupportedOperationException e) {
+            LOGGER.trace("Unable to link {} to {}", targetPath, sourcePath, e);
+            return false;
+        }
+    }
+
+    private boolean transfer(Path targetPath, Set<PosixFilePermission> sourcePermissions)
+            throws IOException {
+        // Like Files.copy(), create target file with access mode of source file
+        FileAttribute<?>[] attributes =
+                sourcePermissions != null
+                        ? new FileAttribute<?>[] {
+                            PosixFilePermissions.asFileAttribute(sourcePermissions)
+                        }
+                        : new FileAttribute<?>[0];
+
+        try (FileChannel in = FileChannel.open(sourcePath);
+                FileChannel out =
+                        FileChannel.open(
+                                targetPath,
+                                Set.of(StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE),
+                                attributes)) {
+            try {
+                long size = in.size();
+                for (long position = 0; position < size; ) {
+                    long transferred = in.transferTo(position, size - position, out);
+                    if (transferred <= 0) {
+                        throw new IOException("Source file was truncated: " + sourcePath);
+                    }
+                    position += transferred;
+                }
+                return true;
+            } catch (IOException e) {
+                LOGGER.debug("Unable to transfer {} to {}", sourcePath, targetPath, e);
+                return false;
+            }
+        }
+    }
+
     @Override
     protected void installContents(Path targetPath) throws IOException {
-        if (sourcePath != null) {
-            Files.copy(sourcePath, targetPath);
-        } else {
+        if (sourcePath == null) {
             Files.write(targetPath, content.get());
+            installationStrategy = InstallationStrategy.WRITE;
+        } else {
+            Set<PosixFilePermission> sourcePermissions = getPermissions(sourcePath);
+            if (link(targetPath, sourcePermissions)) {
+                installationStrategy = InstallationStrategy.HARD_LINK;
+            } else if (transfer(targetPath, sourcePermissions)) {
+                installationStrategy = InstallationStrategy.TRANSFER;
+            } else {
+                Files.copy(sourcePath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+                installationStrategy = InstallationStrategy.COPY;
+            }
         }
+        LOGGER.debug("Installed {} using strategy {}", targetPath, installationStrategy);
     }
 }
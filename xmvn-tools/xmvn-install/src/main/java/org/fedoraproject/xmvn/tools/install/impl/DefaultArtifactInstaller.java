@@ -15,9 +15,8 @@
  */
 package org.fedoraproject.xmvn.tools.install.impl;
 
-import static org.fedoraproject.xmvn.tools.install.JarUtils.containsNativeCode;
+import static org.fedoraproject.xmvn.tools.install.JarUtils.analyze;
 import static org.fedoraproject.xmvn.tools.install.JarUtils.injectManifest;
-import static org.fedoraproject.xmvn.tools.install.JarUtils.usesNativeCode;
 
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -40,6 +39,7 @@ import org.fedoraproject.xmvn.tools.install.ArtifactInstallationException;
 import org.fedoraproject.xmvn.tools.install.ArtifactInstaller;
 import org.fedoraproject.xmvn.tools.install.Directory;
 import org.fedoraproject.xmvn.tools.install.File;
+import org.fedoraproject.xmvn.tools.install.JarAnalysis;
 import org.fedoraproject.xmvn.tools.install.JavaPackage;
 import org.fedoraproject.xmvn.tools.install.RegularFile;
 import org.fedoraproject.xmvn.tools.install.SymbolicLink;
@@ -62,6 +62,21 @@ class DefaultArtifactInstaller implements ArtifactInstaller {
         this.repositoryConfigurator = repositoryConfigurator;
     }
 
+    @Override
+    public void prepare(ArtifactMetadata am) {
+        Artifact artifact = am.toArtifact();
+
+        // Handle native JARs/WARs etc
+        Path artifactPath = Path.of(am.getPath());
+        JarAnalysis analysis = analyze(artifactPath);
+        if (analysis.usesNativeCode() || analysis.containsNativeCode()) {
+            am.getProperties().setProperty("native", "true");
+        }
+
+        // Inject Javapackages manifests
+        injectManifest(artifactPath, artifact, analysis);
+    }
+
     @Override
     public void install(
             JavaPackage targetPackage,
@@ -71,15 +86,7 @@ class DefaultArtifactInstaller implements ArtifactInstaller {
             String repositoryId)
             throws ArtifactInstallationException {
         Artifact artifact = am.toArtifact();
-
-        // Handle native JARs/WARs etc
         Path artifactPath = Path.of(am.getPath());
-        if (usesNativeCode(artifactPath) || containsNativeCode(artifactPath)) {
-            am.getProperties().setProperty("native", "true");
-        }
-
-        // Inject Javapackages manifests
-        injectManifest(artifactPath, artifact);
 
         Map<String, String> properties = new LinkedHashMap<>();
         for (String name : am.getProperties().stringPropertyNames())
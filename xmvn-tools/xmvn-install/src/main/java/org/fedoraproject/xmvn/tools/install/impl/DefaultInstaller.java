@@ -20,11 +20,16 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import org.fedoraproject.xmvn.artifact.Artifact;
 import org.fedoraproject.xmvn.config.Configuration;
 import org.fedoraproject.xmvn.config.Configurator;
@@ -39,6 +44,7 @@ import org.fedoraproject.xmvn.resolver.ResolutionResult;
 import org.fedoraproject.xmvn.resolver.Resolver;
 import org.fedoraproject.xmvn.tools.install.ArtifactInstallationException;
 import org.fedoraproject.xmvn.tools.install.ArtifactInstaller;
+import org.fedoraproject.xmvn.tools.install.File;
 import org.fedoraproject.xmvn.tools.install.InstallationRequest;
 import org.fedoraproject.xmvn.tools.install.InstallationResult;
 import org.fedoraproject.xmvn.tools.install.Installer;
@@ -204,6 +210,123 @@ public class DefaultInstaller implements Installer {
         }
     }
 
+    @FunctionalInterface
+    interface Action<T> {
+        void run(T item) throws ArtifactInstallationException, IOException;
+    }
+
+    /**
+     * Run given action for all items concurrently and wait for all of them to complete.
+     *
+     * <p>If any action fails then exception thrown for the first failed item, in iteration order,
+     * is rethrown, with exceptions for other failed items added as suppressed, so that reported
+     * errors don't depend on thread scheduling.
+     *
+     * @param executor executor to run actions in
+     * @param items items to run the action for
+     * @param action action to run
+     * @throws ArtifactInstallationException
+     * @throws IOException
+     */
+    static <T> void runConcurrently(
+            ExecutorService executor, Collection<T> items, Action<T> action)
+            throws ArtifactInstallationException, IOException {
+        // Failures are recorded by tasks themselves, as fork-join tasks don't propagate checked
+        // exceptions as-is
+        List<T> itemList = new ArrayList<>(items);
+        Throwable[] failures = new Throwable[itemList.size()];
+        List<Future<?>> futures = new ArrayList<>(itemList.size());
+        for (int i = 0; i < itemList.size(); i++) {
+            int index = i;
+            futures.add(
+                    executor.submit(
+                            () -> {
+                                try {
+                                    action.run(itemList.get(index));
+                                } catch (Exception | Error e) {
+                                    failures[index] = e;
+                                }
+                            }));
+        }
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for installation tasks", e);
+            }
+        }
+
+        Throwable failure = null;
+        for (Throwable t : failures) {
+            if (failure == null) {
+                failure = t;
+            } else if (t != null) {
+                failure.addSuppressed(t);
+            }
+        }
+
+        if (failure instanceof ArtifactInstallationException e) {
+            throw e;
+        } else if (failure instanceof IOException e) {
+            throw e;
+        } else if (failure instanceof RuntimeException e) {
+            throw e;
+        } else if (failure instanceof Error e) {
+            throw e;
+        }
+    }
+
+    /**
+     * Get key identifying artifact file, so that different paths of the same file have the same
+     * key. Symbolic links are resolved if the file exists.
+     *
+     * @param path path to artifact file
+     * @return normalized absolute path to artifact file
+     */
+    static Path getFileKey(String path) {
+        Path absolutePath = Path.of(path).toAbsolutePath().normalize();
+        try {
+            return absolutePath.toRealPath();
+        } catch (IOException e) {
+            return absolutePath;
+        }
+    }
+
+    /**
+     * Prepare all installable artifacts concurrently. Artifacts sharing the same file are prepared
+     * sequentially, in reactor order.
+     *
+     * @param executor executor to run preparation in
+     * @throws ArtifactInstallationException
+     * @throws IOException
+     */
+    private void prepareArtifacts(ExecutorService executor)
+            throws ArtifactInstallationException, IOException {
+        Map<Path, List<ArtifactState>> artifactsByPath = new LinkedHashMap<>();
+        for (ArtifactState artifactState : reactor) {
+            if (artifactState.getInstaller() != null) {
+                artifactsByPath
+                        .computeIfAbsent(
+                                getFileKey(artifactState.getMetadata().getPath()),
+                                x -> new ArrayList<>())
+                        .add(artifactState);
+            }
+        }
+
+        runConcurrently(
+                executor,
+                artifactsByPath.values(),
+                artifactStates -> {
+                    for (ArtifactState artifactState : artifactStates) {
+                        artifactState.getInstaller().prepare(artifactState.getMetadata());
+                    }
+                });
+    }
+
     /** Try to resolve dependencies of all installed artifacts. */
     private void resolveArtifactDependencies() {
         Map<Artifact, ArtifactMetadata> installedArtifacts = new LinkedHashMap<>();
@@ -223,51 +346,94 @@ public class DefaultInstaller implements Installer {
             }
         }
 
+        List<Dependency> unresolvedDependencies = new ArrayList<>();
         for (JavaPackage pkg : packageRegistry.getPackages()) {
             for (ArtifactMetadata artifactMetadata : pkg.getMetadata().getArtifacts()) {
                 for (Dependency dependency : artifactMetadata.getDependencies()) {
-                    resolveDependency(dependency, installedArtifacts);
+                    if (!resolveInstalledDependency(dependency, installedArtifacts)) {
+                        unresolvedDependencies.add(dependency);
+                    }
                 }
             }
         }
+
+        // Next try system artifact resolver, first with requested versions, then without
+        unresolvedDependencies = resolveSystemDependencies(unresolvedDependencies, false);
+        unresolvedDependencies = resolveSystemDependencies(unresolvedDependencies, true);
+
+        for (Dependency dependency : unresolvedDependencies) {
+            dependency.setResolvedVersion("UNKNOWN");
+            dependency.setNamespace("UNKNOWN");
+        }
     }
 
-    private void resolveDependency(
+    private boolean resolveInstalledDependency(
             Dependency dependency, Map<Artifact, ArtifactMetadata> installedArtifacts) {
         for (String version :
                 Arrays.asList(dependency.getRequestedVersion(), Artifact.DEFAULT_VERSION)) {
             Artifact dependencyArtifact = dependency.toArtifact().withVersion(version);
 
-            // First try to resolve dependency from installed artifact
             ArtifactMetadata resolvedMetadata = installedArtifacts.get(dependencyArtifact);
             if (resolvedMetadata != null) {
                 dependency.setResolvedVersion(version);
                 dependency.setNamespace(resolvedMetadata.getNamespace());
-                return;
+                return true;
             }
         }
 
-        for (String version :
-                Arrays.asList(dependency.getRequestedVersion(), Artifact.DEFAULT_VERSION)) {
-            Artifact dependencyArtifact = dependency.toArtifact().withVersion(version);
+        return false;
+    }
 
-            // Next try system artifact resolver
-            ResolutionRequest request = new ResolutionRequest(dependencyArtifact);
-            ResolutionResult result = resolver.resolve(request);
+    /**
+     * Resolve given dependencies from system repositories in a single batch.
+     *
+     * @return dependencies that could not be resolved
+     */
+    private List<Dependency> resolveSystemDependencies(
+            List<Dependency> dependencies, boolean versionless) {
+        if (dependencies.isEmpty()) {
+            return dependencies;
+        }
+
+        List<ResolutionRequest> requests = new ArrayList<>(dependencies.size());
+        for (Dependency dependency : dependencies) {
+            String version =
+                    versionless ? Artifact.DEFAULT_VERSION : dependency.getRequestedVersion();
+            requests.add(new ResolutionRequest(dependency.toArtifact().withVersion(version)));
+        }
+
+        List<ResolutionResult> results = resolver.resolveAll(requests);
+        List<Dependency> unresolvedDependencies = new ArrayList<>();
+        for (int i = 0; i < dependencies.size(); i++) {
+            Dependency dependency = dependencies.get(i);
+            ResolutionResult result = results.get(i);
             if (result.getArtifactPath() != null) {
                 dependency.setResolvedVersion(result.getCompatVersion());
                 dependency.setNamespace(result.getNamespace());
-                return;
+            } else {
+                unresolvedDependencies.add(dependency);
             }
         }
 
-        dependency.setResolvedVersion("UNKNOWN");
-        dependency.setNamespace("UNKNOWN");
+        return unresolvedDependencies;
     }
 
     @Override
     public InstallationResult install(InstallationRequest request)
             throws ArtifactInstallationException, IOException {
+        // Artifact preparation and file installation are I/O-bound and independent for every
+        // artifact and every file, so they are run concurrently. All other stages are sequential
+        // and process artifacts and packages in reactor order, so that results are deterministic.
+        ExecutorService executor = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            return install(request, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private InstallationResult install(InstallationRequest request, ExecutorService executor)
+            throws ArtifactInstallationException, IOException {
         configuration = configurator.getConfiguration();
         InstallerSettings settings = configuration.getInstallerSettings();
         packageRegistry = new PackageRegistry(settings, request.getBasePackageName());
@@ -294,6 +460,9 @@ public class DefaultInstaller implements Installer {
         logger.debug("Assigning installer for each installable artifact");
         for (ArtifactState artifactState : reactor) assignArtifactInstaller(artifactState);
 
+        logger.debug("Preparing artifacts");
+        prepareArtifacts(executor);
+
         logger.debug("Installing artifacts");
         for (ArtifactState artifactState : reactor) {
             if (logger.isDebugEnabled()) {
@@ -321,10 +490,14 @@ public class DefaultInstaller implements Installer {
         resolveArtifactDependencies();
 
         logger.debug("Installing packages into buildroot: {}", request.getInstallRoot());
+        List<File> files = new ArrayList<>();
         for (JavaPackage pkg : packageRegistry.getPackages()) {
             logger.debug("Installing {}", pkg);
-            pkg.install(request.getInstallRoot());
+            files.addAll(pkg.getFiles());
+        }
+        runConcurrently(executor, files, file -> file.install(request.getInstallRoot()));
 
+        for (JavaPackage pkg : packageRegistry.getPackages()) {
             Path mfiles =
                     Path.of(
                             pkg.getId() == null || pkg.getId().isEmpty()
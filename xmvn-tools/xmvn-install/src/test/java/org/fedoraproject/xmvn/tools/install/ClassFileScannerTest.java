@@ -0,0 +1,66 @@
+/*-
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fedoraproject.xmvn.tools.install;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import org.fedoraproject.xmvn.tools.install.JarAnalysis.NativeMethod;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Mikolaj Izdebski
+ */
+class ClassFileScannerTest {
+    private static byte[] readClass(Class<?> cls) throws Exception {
+        try (InputStream is = cls.getResourceAsStream(cls.getSimpleName() + ".class")) {
+            return is.readAllBytes();
+        }
+    }
+
+    @Test
+    void nativeMethod() throws Exception {
+        NativeMethod nativeMethod =
+                ClassFileScanner.findNativeMethod("Thread.class", readClass(Thread.class));
+
+        assertThat(nativeMethod).isNotNull();
+        assertThat(nativeMethod.entryName()).isEqualTo("Thread.class");
+        assertThat(nativeMethod.className()).isEqualTo("java.lang.Thread");
+        assertThat(Thread.class.getDeclaredMethods())
+                .anyMatch(method -> method.getName().equals(nativeMethod.methodName()));
+    }
+
+    @Test
+    void noNativeMethods() throws Exception {
+        assertThat(ClassFileScanner.findNativeMethod("x", readClass(ClassFileScannerTest.class)))
+                .isNull();
+    }
+
+    @Test
+    void malformedClass() throws Exception {
+        byte[] classBytes = readClass(ClassFileScannerTest.class);
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> ClassFileScanner.findNativeMethod("x", new byte[] {1, 2, 3, 4}));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(
+                        () ->
+                                ClassFileScanner.findNativeMethod(
+                                        "x", Arrays.copyOf(classBytes, classBytes.length / 2)));
+    }
+}
@@ -24,9 +24,11 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.PosixFilePermission;
+import java.util.Set;
 import java.util.jar.Attributes;
 import java.util.jar.JarInputStream;
 import java.util.jar.Manifest;
+import java.util.stream.Stream;
 import org.easymock.EasyMock;
 import org.fedoraproject.xmvn.artifact.Artifact;
 import org.junit.jupiter.api.BeforeEach;
@@ -282,6 +284,38 @@ class JarUtilsTest {
         assertThat(JarUtils.containsNativeCode(nativeMethodJarPath)).isFalse();
     }
 
+    private static void assertAnalysis(
+            String name, boolean usesNativeCode, boolean containsNativeCode) {
+        JarAnalysis analysis = JarUtils.analyze(Path.of("src/test/resources/" + name + ".jar"));
+        assertThat(analysis.usesNativeCode()).isEqualTo(usesNativeCode);
+        assertThat(analysis.containsNativeCode()).isEqualTo(containsNativeCode);
+    }
+
+    /**
+     * Test if single-pass analysis detects both kinds of native code.
+     *
+     * @throws Exception
+     */
+    @Test
+    void analysis() throws Exception {
+        assertAnalysis("example", false, false);
+        assertAnalysis("native-code", false, true);
+        assertAnalysis("native-method", true, false);
+        assertAnalysis("invalid", false, false);
+
+        assertThat(JarUtils.analyze(Path.of("src/test/resources/native-method.jar")).nativeMethod())
+                .isEqualTo(new JarAnalysis.NativeMethod("Native.class", "Native", "foo", "()V"));
+        assertThat(JarUtils.analyze(Path.of("src/test/resources/example.jar")).nativeMethod())
+                .isNull();
+
+        JarAnalysis analysis = JarUtils.analyze(Path.of("src/test/resources/late-manifest.jar"));
+        assertThat(analysis.manifest()).isNotNull();
+        assertThat(analysis.manifest().getMainAttributes().getValue("Manifest-Version"))
+                .isEqualTo("1.0");
+        assertThat(JarUtils.analyze(Path.of("src/test/resources/invalid.jar")).manifest())
+                .isNull();
+    }
+
     /**
      * Test if any of utility functions throws exception when trying to access invalid JAR file.
      *
@@ -464,4 +498,59 @@ class JarUtilsTest {
 
         assertThat(testJar1).hasSameBinaryContentAs(testJar2);
     }
+
+    /**
+     * Test if replacing manifest via temporary file gives the same result as in-place manifest
+     * injection, retains file perms and doesn't leave any temporary files behind.
+     *
+     * @throws Exception
+     */
+    @Test
+    void manifestReplacement() throws Exception {
+        Path testResource = Path.of("src/test/resources/example.jar");
+        Path inPlaceJar = workDir.resolve("in-place.jar");
+        Path replaceDir = workDir.resolve("replace");
+        Path replacedJar = replaceDir.resolve("replaced.jar");
+        Files.createDirectories(replaceDir);
+        Files.copy(testResource, inPlaceJar, StandardCopyOption.REPLACE_EXISTING);
+        Files.copy(testResource, replacedJar, StandardCopyOption.REPLACE_EXISTING);
+        Set<PosixFilePermission> perms =
+                Set.of(
+                        PosixFilePermission.OWNER_READ,
+                        PosixFilePermission.OWNER_WRITE,
+                        PosixFilePermission.GROUP_READ,
+                        PosixFilePermission.OTHERS_READ);
+        Files.setPosixFilePermissions(replacedJar, perms);
+
+        Artifact artifact = Artifact.of("org.apache.maven", "maven-model", "xsd", "model", "2.2.1");
+        JarUtils.injectManifest(inPlaceJar, artifact);
+        JarUtils.injectManifest(replacedJar, artifact, JarUtils.analyze(replacedJar));
+
+        assertThat(replacedJar).hasSameBinaryContentAs(inPlaceJar);
+        assertThat(Files.getPosixFilePermissions(replacedJar)).isEqualTo(perms);
+        try (Stream<Path> paths = Files.list(replaceDir)) {
+            assertThat(paths.toList()).containsExactly(replacedJar);
+        }
+    }
+
+    /**
+     * Test that JAR is not rewritten if its manifest already contains the right coordinates.
+     *
+     * @throws Exception
+     */
+    @Test
+    void manifestReplacementSkipped() throws Exception {
+        Path testResource = Path.of("src/test/resources/example.jar");
+        Path testJar = workDir.resolve("manifest.jar");
+        Files.copy(testResource, testJar, StandardCopyOption.REPLACE_EXISTING);
+
+        Artifact artifact = Artifact.of("org.apache.maven", "maven-model", "xsd", "model", "2.2.1");
+        JarUtils.injectManifest(testJar, artifact, JarUtils.analyze(testJar));
+        long oldInode = (Long) Files.getAttribute(testJar, "unix:ino");
+
+        JarUtils.injectManifest(testJar, artifact, JarUtils.analyze(testJar));
+        long newInode = (Long) Files.getAttribute(testJar, "unix:ino");
+
+        assertThat(newInode).as("JAR was rewritten").isEqualTo(oldInode);
+    }
 }
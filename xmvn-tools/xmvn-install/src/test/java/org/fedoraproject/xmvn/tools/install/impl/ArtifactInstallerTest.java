@@ -28,6 +28,8 @@ import java.nio.file.StandardCopyOption;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
 import org.easymock.EasyMock;
 import org.fedoraproject.xmvn.artifact.Artifact;
 import org.fedoraproject.xmvn.config.PackagingRule;
@@ -126,6 +128,21 @@ class ArtifactInstallerTest {
         assertThat(artifact.getPath()).isEqualTo("/com.example-test");
     }
 
+    @Test
+    void preparation() throws Exception {
+        ArtifactMetadata artifact = createArtifact();
+
+        installer.prepare(artifact);
+
+        assertThat(artifact.getProperties()).doesNotContainKey("native");
+        try (JarFile jar = new JarFile(artifact.getPath())) {
+            Attributes attr = jar.getManifest().getMainAttributes();
+            assertThat(attr.getValue("JavaPackages-GroupId")).isEqualTo("com.example");
+            assertThat(attr.getValue("JavaPackages-ArtifactId")).isEqualTo("test");
+            assertThat(attr.getValue("JavaPackages-Version")).isEqualTo("4.5");
+        }
+    }
+
     @Test
     void compatVersion() throws Exception {
         ArtifactMetadata artifact = createArtifact();
@@ -16,12 +16,21 @@
 package org.fedoraproject.xmvn.tools.install.impl;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.fedoraproject.xmvn.tools.install.impl.InstallationPlanLoader.prepareInstallationPlanFile;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import org.easymock.EasyMock;
 import org.fedoraproject.xmvn.config.Artifact;
 import org.fedoraproject.xmvn.config.Configuration;
@@ -32,6 +41,7 @@ import org.fedoraproject.xmvn.metadata.ArtifactMetadata;
 import org.fedoraproject.xmvn.resolver.ResolutionRequest;
 import org.fedoraproject.xmvn.resolver.ResolutionResult;
 import org.fedoraproject.xmvn.resolver.Resolver;
+import org.fedoraproject.xmvn.tools.install.ArtifactInstallationException;
 import org.fedoraproject.xmvn.tools.install.ArtifactInstaller;
 import org.fedoraproject.xmvn.tools.install.File;
 import org.fedoraproject.xmvn.tools.install.InstallationRequest;
@@ -123,6 +133,15 @@ class InstallerTest extends AbstractInstallerTest {
                 .andReturn(new MockArtifactInstaller())
                 .anyTimes();
         expect(configuratorMock.getConfiguration()).andReturn(config).atLeastOnce();
+        // Batch resolution is verified against expectations recorded for individual requests
+        expect(resolverMock.resolveAll(EasyMock.anyObject()))
+                .andAnswer(
+                        () -> {
+                            Collection<ResolutionRequest> requests =
+                                    EasyMock.getCurrentArgument(0);
+                            return requests.stream().map(resolverMock::resolve).toList();
+                        })
+                .anyTimes();
         replay(resolverMock, configuratorMock, installerFactoryMock);
 
         InstallationRequest request = new InstallationRequest();
@@ -234,4 +253,60 @@ class InstallerTest extends AbstractInstallerTest {
                 getResource("test-pkg-sub.xml"),
                 installRoot.resolve("usr/share/maven-metadata/test-pkg-subpackage.xml"));
     }
+
+    @Test
+    void firstFailureInIterationOrderIsThrown() throws Exception {
+        CountDownLatch laterItemFailed = new CountDownLatch(1);
+        ExecutorService executor = new ForkJoinPool(4);
+        Throwable thrown;
+        try {
+            thrown =
+                    catchThrowable(
+                            () ->
+                                    DefaultInstaller.runConcurrently(
+                                            executor,
+                                            List.of(0, 1, 2, 3),
+                                            item -> {
+                                                if (item == 3) {
+                                                    laterItemFailed.countDown();
+                                                    throw new IOException("item 3");
+                                                }
+                                                if (item == 1) {
+                                                    awaitLatch(laterItemFailed);
+                                                    throw new ArtifactInstallationException(
+                                                            "item 1");
+                                                }
+                                            }));
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(thrown).isInstanceOf(ArtifactInstallationException.class).hasMessage("item 1");
+        assertThat(thrown.getSuppressed()).hasSize(1);
+        assertThat(thrown.getSuppressed()[0]).isInstanceOf(IOException.class).hasMessage("item 3");
+    }
+
+    private static void awaitLatch(CountDownLatch latch) throws IOException {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Test
+    void fileKeyIdentifiesSameFile() throws Exception {
+        Path jar = Files.createFile(workdir.resolve("test.jar"));
+        Path link = Files.createSymbolicLink(workdir.resolve("link.jar"), jar);
+        Files.createDirectory(workdir.resolve("sub"));
+
+        Path key = DefaultInstaller.getFileKey(jar.toString());
+        assertThat(DefaultInstaller.getFileKey(link.toString())).isEqualTo(key);
+        assertThat(DefaultInstaller.getFileKey(workdir.resolve("sub/../test.jar").toString()))
+                .isEqualTo(key);
+
+        Path missing = workdir.resolve("missing.jar").normalize();
+        assertThat(DefaultInstaller.getFileKey(workdir.resolve("sub/../missing.jar").toString()))
+                .isEqualTo(missing);
+    }
 }
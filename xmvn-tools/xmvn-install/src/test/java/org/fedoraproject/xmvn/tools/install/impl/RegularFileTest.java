@@ -21,8 +21,10 @@ import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
 import org.fedoraproject.xmvn.tools.install.Directory;
 import org.fedoraproject.xmvn.tools.install.RegularFile;
+import org.fedoraproject.xmvn.tools.install.RegularFile.InstallationStrategy;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -34,11 +36,13 @@ class RegularFileTest extends AbstractFileTest {
         Path jar = getResource("example.jar");
         byte[] content = Files.readAllBytes(jar);
         add(new Directory(Path.of("usr/share/java")));
-        add(new RegularFile(Path.of("usr/share/java/foobar.jar"), content));
+        RegularFile file = new RegularFile(Path.of("usr/share/java/foobar.jar"), content);
+        add(file);
         Path root = performInstallation();
         assertDirectoryStructure(
                 "D /usr", "D /usr/share", "D /usr/share/java", "F /usr/share/java/foobar.jar");
         assertThat(root.resolve("usr/share/java/foobar.jar")).hasSameBinaryContentAs(jar);
+        assertThat(file.getInstallationStrategy()).isEqualTo(InstallationStrategy.WRITE);
 
         assertDescriptorEquals(
                 "%attr(0755,root,root) %dir /usr/share/java",
@@ -59,6 +63,58 @@ class RegularFileTest extends AbstractFileTest {
                 "%attr(0644,root,root) /usr/share/java/foobar.jar");
     }
 
+    private Path performInstallationWithHardLinks() throws Exception {
+        System.setProperty("xmvn.install.hardLink", "true");
+        try {
+            return performInstallation();
+        } finally {
+            System.clearProperty("xmvn.install.hardLink");
+        }
+    }
+
+    @Test
+    void hardLink() throws Exception {
+        Path jar = workdir.resolve("foobar.jar");
+        Files.copy(getResource("example.jar"), jar);
+        Files.setPosixFilePermissions(jar, PosixFilePermissions.fromString("rw-r--r--"));
+        RegularFile file = new RegularFile(Path.of("usr/share/java/foobar.jar"), jar);
+        add(file);
+        Path root = performInstallationWithHardLinks();
+        assertThat(file.getInstallationStrategy()).isEqualTo(InstallationStrategy.HARD_LINK);
+        assertThat(Files.isSameFile(root.resolve("usr/share/java/foobar.jar"), jar)).isTrue();
+        assertDescriptorEquals("%attr(0644,root,root) /usr/share/java/foobar.jar");
+    }
+
+    @Test
+    void noHardLinkByDefault() throws Exception {
+        Path jar = workdir.resolve("foobar.jar");
+        Files.copy(getResource("example.jar"), jar);
+        Files.setPosixFilePermissions(jar, PosixFilePermissions.fromString("rw-r--r--"));
+        RegularFile file = new RegularFile(Path.of("usr/share/java/foobar.jar"), jar);
+        add(file);
+        Path root = performInstallation();
+        assertThat(file.getInstallationStrategy()).isEqualTo(InstallationStrategy.TRANSFER);
+        assertThat(Files.isSameFile(root.resolve("usr/share/java/foobar.jar"), jar)).isFalse();
+        assertThat(root.resolve("usr/share/java/foobar.jar")).hasSameBinaryContentAs(jar);
+        assertDescriptorEquals("%attr(0644,root,root) /usr/share/java/foobar.jar");
+    }
+
+    @Test
+    void noHardLinkWhenModeDiffers() throws Exception {
+        Path jar = workdir.resolve("foobar.jar");
+        Files.copy(getResource("example.jar"), jar);
+        Files.setPosixFilePermissions(jar, PosixFilePermissions.fromString("rw-------"));
+        RegularFile file = new RegularFile(Path.of("usr/share/java/foobar.jar"), jar);
+        add(file);
+        Path root = performInstallationWithHardLinks();
+        assertThat(file.getInstallationStrategy()).isEqualTo(InstallationStrategy.TRANSFER);
+        assertThat(Files.isSameFile(root.resolve("usr/share/java/foobar.jar"), jar)).isFalse();
+        assertThat(root.resolve("usr/share/java/foobar.jar")).hasSameBinaryContentAs(jar);
+        assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(jar)))
+                .isEqualTo("rw-------");
+        assertDescriptorEquals("%attr(0644,root,root) /usr/share/java/foobar.jar");
+    }
+
     @Test
     void createParentDirectory() throws Exception {
         Path jar = getResource("example.jar");
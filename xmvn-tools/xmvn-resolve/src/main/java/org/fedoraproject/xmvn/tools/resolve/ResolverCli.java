@@ -17,11 +17,9 @@ package org.fedoraproject.xmvn.tools.resolve;
 
 import io.kojan.xml.XMLException;
 import java.io.IOException;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Queue;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.fedoraproject.xmvn.artifact.Artifact;
@@ -111,11 +109,11 @@ public class ResolverCli {
         try {
             boolean error = false;
 
-            Queue<ResolutionRequest> requestsQueue = new ArrayDeque<>(parseRequests(cliRequest));
+            List<ResolutionRequest> requests = parseRequests(cliRequest);
             List<ResolutionResult> results = new ArrayList<>();
 
             Set<Artifact> requestedArtifacts = new LinkedHashSet<>();
-            for (ResolutionRequest request : requestsQueue) {
+            for (ResolutionRequest request : requests) {
                 requestedArtifacts.add(request.getArtifact());
             }
 
@@ -128,43 +126,50 @@ public class ResolverCli {
                 metadataResult = metadataResolver.resolveMetadata(metadataRequest);
             }
 
-            while (!requestsQueue.isEmpty()) {
-                ResolutionRequest request = requestsQueue.remove();
-                ResolutionResult result = resolver.resolve(request);
-                results.add(result);
-
-                if (result.getArtifactPath() == null) {
-                    error = true;
-                    logger.error("Unable to resolve artifact {}", request.getArtifact());
-                    continue;
-                }
+            // Resolve artifacts in rounds, each round resolving dependencies discovered in the
+            // previous one, so that every round is a single batch resolution
+            while (!requests.isEmpty()) {
+                List<ResolutionResult> roundResults = resolver.resolveAll(requests);
+                results.addAll(roundResults);
+                List<ResolutionRequest> dependencyRequests = new ArrayList<>();
+
+                for (int i = 0; i < requests.size(); i++) {
+                    ResolutionRequest request = requests.get(i);
+                    ResolutionResult result = roundResults.get(i);
+
+                    if (result.getArtifactPath() == null) {
+                        error = true;
+                        logger.error("Unable to resolve artifact {}", request.getArtifact());
+                        continue;
+                    }
 
-                if (cliRequest.isRecursive()) {
-                    Artifact requestedArtifact = request.getArtifact();
-                    String resolvedVersion = result.getCompatVersion();
-                    Artifact resolvedArtifact = requestedArtifact.withVersion(resolvedVersion);
-                    ArtifactMetadata artifactMetadata =
-                            metadataResult.getMetadataFor(resolvedArtifact);
-                    for (Dependency dependency : artifactMetadata.getDependencies()) {
-                        Artifact dependencyArtifact =
-                                Artifact.of(
-                                        dependency.getGroupId(),
-                                        dependency.getArtifactId(),
-                                        dependency.getExtension(),
-                                        dependency.getClassifier(),
-                                        dependency.getResolvedVersion());
-                        logger.debug(
-                                "Also resolving artifact {} as a dependency of {}",
-                                dependencyArtifact,
-                                requestedArtifact);
-                        if (requestedArtifacts.add(dependencyArtifact)) {
-                            ResolutionRequest dependencyRequest =
-                                    new ResolutionRequest(dependencyArtifact);
-                            dependencyRequest.setPersistentFileNeeded(true);
-                            requestsQueue.add(dependencyRequest);
+                    if (cliRequest.isRecursive()) {
+                        Artifact requestedArtifact = request.getArtifact();
+                        ArtifactMetadata artifactMetadata =
+                                metadataResult.getMetadataOrDefaultFor(requestedArtifact);
+                        for (Dependency dependency : artifactMetadata.getDependencies()) {
+                            Artifact dependencyArtifact =
+                                    Artifact.of(
+                                            dependency.getGroupId(),
+                                            dependency.getArtifactId(),
+                                            dependency.getExtension(),
+                                            dependency.getClassifier(),
+                                            dependency.getResolvedVersion());
+                            logger.debug(
+                                    "Also resolving artifact {} as a dependency of {}",
+                                    dependencyArtifact,
+                                    requestedArtifact);
+                            if (requestedArtifacts.add(dependencyArtifact)) {
+                                ResolutionRequest dependencyRequest =
+                                        new ResolutionRequest(dependencyArtifact);
+                                dependencyRequest.setPersistentFileNeeded(true);
+                                dependencyRequests.add(dependencyRequest);
+                            }
                         }
                     }
                 }
+
+                requests = dependencyRequests;
             }
 
             if (error && !cliRequest.isRaw()) {
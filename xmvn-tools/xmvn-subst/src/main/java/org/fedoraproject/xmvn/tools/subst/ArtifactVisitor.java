@@ -16,21 +16,21 @@
 package org.fedoraproject.xmvn.tools.subst;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.FileVisitResult;
 import java.nio.file.FileVisitor;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.Enumeration;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
+import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
 import org.fedoraproject.xmvn.artifact.Artifact;
 import org.fedoraproject.xmvn.logging.Logger;
 import org.fedoraproject.xmvn.metadata.ArtifactMetadata;
@@ -113,60 +113,57 @@ public class ArtifactVisitor implements FileVisitor<Path> {
         return FileVisitResult.CONTINUE;
     }
 
-    private Artifact getArtifactFromManifest(Path path) throws IOException {
-        try (JarFile jarFile = new JarFile(path.toFile())) {
-            Manifest mf = jarFile.getManifest();
-            if (mf == null) {
-                return null;
-            }
-
-            String groupId = mf.getMainAttributes().getValue(Artifact.MF_KEY_GROUPID);
-            String artifactId = mf.getMainAttributes().getValue(Artifact.MF_KEY_ARTIFACTID);
-            String extension = mf.getMainAttributes().getValue(Artifact.MF_KEY_EXTENSION);
-            String classifier = mf.getMainAttributes().getValue(Artifact.MF_KEY_CLASSIFIER);
-            String version = mf.getMainAttributes().getValue(Artifact.MF_KEY_VERSION);
+    private static Artifact getArtifactFromManifest(JarFile jarFile) throws IOException {
+        Manifest mf = jarFile.getManifest();
+        if (mf == null) {
+            return null;
+        }
 
-            if (groupId == null || artifactId == null) {
-                return null;
-            }
+        String groupId = mf.getMainAttributes().getValue(Artifact.MF_KEY_GROUPID);
+        String artifactId = mf.getMainAttributes().getValue(Artifact.MF_KEY_ARTIFACTID);
+        String extension = mf.getMainAttributes().getValue(Artifact.MF_KEY_EXTENSION);
+        String classifier = mf.getMainAttributes().getValue(Artifact.MF_KEY_CLASSIFIER);
+        String version = mf.getMainAttributes().getValue(Artifact.MF_KEY_VERSION);
 
-            return Artifact.of(groupId, artifactId, extension, classifier, version);
+        if (groupId == null || artifactId == null) {
+            return null;
         }
+
+        return Artifact.of(groupId, artifactId, extension, classifier, version);
     }
 
-    private Artifact getArtifactFromPomProperties(Path path, String extension) throws IOException {
-        try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(path))) {
-            ZipEntry entry;
-            while ((entry = zis.getNextEntry()) != null) {
-                String name = entry.getName();
-                if (name.startsWith("META-INF/maven/") && name.endsWith("/pom.properties")) {
-                    Properties properties = new Properties();
-                    properties.load(zis);
-
-                    String groupId = properties.getProperty("groupId");
-                    String artifactId = properties.getProperty("artifactId");
-                    String version = properties.getProperty("version");
-                    return Artifact.of(groupId, artifactId, extension, version);
+    private static Artifact getArtifactFromPomProperties(JarFile jarFile, String extension)
+            throws IOException {
+        Enumeration<JarEntry> entries = jarFile.entries();
+        while (entries.hasMoreElements()) {
+            JarEntry entry = entries.nextElement();
+            String name = entry.getName();
+            if (name.startsWith("META-INF/maven/") && name.endsWith("/pom.properties")) {
+                Properties properties = new Properties();
+                try (InputStream is = jarFile.getInputStream(entry)) {
+                    properties.load(is);
                 }
-            }
 
-            return null;
+                String groupId = properties.getProperty("groupId");
+                String artifactId = properties.getProperty("artifactId");
+                String version = properties.getProperty("version");
+                return Artifact.of(groupId, artifactId, extension, version);
+            }
         }
+
+        return null;
     }
 
     private Artifact readArtifactDefinition(Path path, String extension) {
-        try {
-            Artifact artifact = getArtifactFromManifest(path);
-            if (artifact != null) {
-                return artifact;
-            }
-
-            artifact = getArtifactFromPomProperties(path, extension);
+        // Both manifest and pom.properties are looked up in the central directory of the same
+        // archive, which is opened only once
+        try (JarFile jarFile = new JarFile(path.toFile())) {
+            Artifact artifact = getArtifactFromManifest(jarFile);
             if (artifact != null) {
                 return artifact;
             }
 
-            return null;
+            return getArtifactFromPomProperties(jarFile, extension);
         } catch (IOException e) {
             logger.error("Failed to get artifact definition from file {}", path, e);
             return null;
@@ -199,14 +196,10 @@ public class ArtifactVisitor implements FileVisitor<Path> {
     }
 
     private ArtifactMetadata resolveMetadata(Artifact artifact) {
-        List<Artifact> versionedArtifacts = Arrays.asList(artifact, artifact.withVersion(null));
-
         for (MetadataResult metadataResult : metadata) {
-            for (Artifact versionedArtifact : versionedArtifacts) {
-                ArtifactMetadata metadata = metadataResult.getMetadataFor(versionedArtifact);
-                if (metadata != null) {
-                    return metadata;
-                }
+            ArtifactMetadata metadata = metadataResult.getMetadataOrDefaultFor(artifact);
+            if (metadata != null) {
+                return metadata;
             }
         }
 
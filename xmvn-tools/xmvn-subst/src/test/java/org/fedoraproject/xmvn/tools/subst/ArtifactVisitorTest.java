@@ -61,10 +61,12 @@ class ArtifactVisitorTest {
         ArtifactMetadata am = new ArtifactMetadata();
         am.setPath("/foo/bar");
         MetadataResult mr = EasyMock.createMock(MetadataResult.class);
-        EasyMock.expect(mr.getMetadataFor(Artifact.of("gid:aid:ver"))).andReturn(null).times(2);
-        EasyMock.expect(mr.getMetadataFor(Artifact.of("gid:aid:SYSTEM"))).andReturn(am).times(2);
-        EasyMock.expect(mr.getMetadataFor(Artifact.of("gid:other:ver"))).andReturn(null).once();
-        EasyMock.expect(mr.getMetadataFor(Artifact.of("gid:other:SYSTEM"))).andReturn(null).once();
+        EasyMock.expect(mr.getMetadataOrDefaultFor(Artifact.of("gid:aid:ver")))
+                .andReturn(am)
+                .times(2);
+        EasyMock.expect(mr.getMetadataOrDefaultFor(Artifact.of("gid:other:ver")))
+                .andReturn(null)
+                .once();
 
         Path jar1 = writeJar("my.jar", "gid", "aid", "ver");
         Path jar2 = writeJar("sub/dir/my.jar", "gid", "aid", "ver");